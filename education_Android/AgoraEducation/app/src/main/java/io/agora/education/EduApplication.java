@@ -7,15 +7,27 @@ import androidx.annotation.Nullable;
 import java.util.Map;
 
 import io.agora.base.PreferenceManager;
+import io.agora.base.StartupPipeline;
 import io.agora.base.ToastManager;
+import io.agora.base.network.RetrofitManager;
+import io.agora.education.classroom.widget.player.ExoPlayerPool;
+import io.agora.education.classroom.widget.player.VideoCache;
+import io.agora.education.service.CommonService;
+import io.agora.education.service.RecordService;
+import io.agora.education.service.RoomService;
 import io.agora.education.service.bean.response.AppConfigRes;
 import io.agora.log.LogManager;
 
 public class EduApplication extends Application {
 
+    public static final String TASK_PREFERENCES = "preferences";
+    public static final String TASK_RETROFIT = "retrofit";
+    public static final String TASK_VIDEO_CACHE = "videoCache";
+
     public static EduApplication instance;
 
     private AppConfigRes config;
+    private StartupPipeline startup;
 
     @Override
     public void onCreate() {
@@ -25,6 +37,37 @@ public class EduApplication extends Application {
         LogManager.init(this, BuildConfig.EXTRA);
         PreferenceManager.init(this);
         ToastManager.init(this);
+        startup = new StartupPipeline()
+                .add(TASK_PREFERENCES, PreferenceManager::preload)
+                .add(TASK_RETROFIT, () -> RetrofitManager.instance().warmUp(BuildConfig.API_BASE_URL,
+                        CommonService.class, RoomService.class, RecordService.class))
+                // scans the cache index, players read from the network until it is ready
+                .add(TASK_VIDEO_CACHE, () -> VideoCache.instance().init(this, VideoCache.DEFAULT_MAX_BYTES));
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // no more frames to flush on while in background
+            PreferenceManager.flush();
+        }
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            ExoPlayerPool.instance().trim();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        ExoPlayerPool.instance().trim();
+    }
+
+    /**
+     * initialization running in background, screens add their own tasks to it
+     */
+    public static StartupPipeline getStartup() {
+        return instance.startup;
     }
 
     @Nullable
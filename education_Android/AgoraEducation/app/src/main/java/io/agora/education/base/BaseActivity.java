@@ -9,6 +9,7 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import butterknife.ButterKnife;
+import io.agora.base.PreferenceManager;
 import io.agora.education.widget.EyeProtection;
 
 public abstract class BaseActivity extends AppCompatActivity {
@@ -34,11 +35,14 @@ public abstract class BaseActivity extends AppCompatActivity {
     @Override
     protected void onStart() {
         super.onStart();
-        if (EyeProtection.isNeedShow()) {
-            showEyeProtection();
-        } else {
-            dismissEyeProtection();
-        }
+        PreferenceManager.whenLoaded(() -> {
+            if (isDestroyed()) return;
+            if (EyeProtection.isNeedShow()) {
+                showEyeProtection();
+            } else {
+                dismissEyeProtection();
+            }
+        });
     }
 
     protected void showEyeProtection() {
@@ -9,14 +9,12 @@ import com.google.android.exoplayer2.ui.PlayerView;
 
 import butterknife.BindView;
 import butterknife.OnClick;
-import io.agora.base.network.RetrofitManager;
-import io.agora.education.BuildConfig;
-import io.agora.education.EduApplication;
+import io.agora.base.Callback;
 import io.agora.education.R;
 import io.agora.education.base.BaseActivity;
-import io.agora.education.base.BaseCallback;
 import io.agora.education.classroom.fragment.ReplayBoardFragment;
-import io.agora.education.service.RoomService;
+import io.agora.education.classroom.strategy.BoardSessionCache;
+import io.agora.education.service.bean.response.RoomBoardRes;
 
 public class ReplayActivity extends BaseActivity {
 
@@ -24,12 +22,13 @@ public class ReplayActivity extends BaseActivity {
     public static final String WHITEBOARD_START_TIME = "whiteboardStartTime";
     public static final String WHITEBOARD_END_TIME = "whiteboardEndTime";
     public static final String WHITEBOARD_URL = "whiteboardUrl";
+    public static final String RECORD_ID = "recordId";
 
     @BindView(R.id.video_view)
     protected PlayerView video_view;
 
     private ReplayBoardFragment replayBoardFragment;
-    private String url, roomId;
+    private String url, roomId, recordId;
     private long startTime, endTime;
     private boolean isInit;
 
@@ -43,6 +42,7 @@ public class ReplayActivity extends BaseActivity {
         Intent intent = getIntent();
         url = intent.getStringExtra(WHITEBOARD_URL);
         roomId = intent.getStringExtra(WHITEBOARD_ROOM_ID);
+        recordId = intent.getStringExtra(RECORD_ID);
         startTime = intent.getLongExtra(WHITEBOARD_START_TIME, 0);
         endTime = intent.getLongExtra(WHITEBOARD_END_TIME, 0);
     }
@@ -57,6 +57,7 @@ public class ReplayActivity extends BaseActivity {
         Bundle bundle = new Bundle();
         bundle.putLong(WHITEBOARD_START_TIME, startTime);
         bundle.putLong(WHITEBOARD_END_TIME, endTime);
+        bundle.putString(RECORD_ID, recordId);
         replayBoardFragment.setArguments(bundle);
         getSupportFragmentManager().beginTransaction()
                 .add(R.id.layout_whiteboard, replayBoardFragment)
@@ -67,13 +68,19 @@ public class ReplayActivity extends BaseActivity {
     protected void onResumeFragments() {
         super.onResumeFragments();
         if (!isInit) {
-            RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RoomService.class)
-                    .roomBoard(EduApplication.getAppId(), roomId)
-                    .enqueue(new BaseCallback<>(data -> {
-                        replayBoardFragment.initReplayWithRoomToken(data.boardId, data.boardToken);
-                        replayBoardFragment.setPlayer(video_view, url);
-                        isInit = true;
-                    }));
+            BoardSessionCache.instance().get(roomId, new Callback<RoomBoardRes>() {
+                @Override
+                public void onSuccess(RoomBoardRes res) {
+                    if (isInit || isDestroyed()) return;
+                    replayBoardFragment.initReplayWithRoomToken(res.boardId, res.boardToken);
+                    replayBoardFragment.setPlayer(video_view, url);
+                    isInit = true;
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                }
+            });
         }
     }
 
@@ -19,6 +19,7 @@ import io.agora.education.classroom.adapter.ClassVideoAdapter;
 import io.agora.education.classroom.bean.channel.Room;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.classroom.fragment.UserListFragment;
+import io.agora.education.classroom.mediator.VideoStreamScheduler;
 import io.agora.education.classroom.strategy.context.SmallClassContext;
 
 public class SmallClassActivity extends BaseClassActivity implements SmallClassContext.SmallClassEventListener, TabLayout.OnTabSelectedListener {
@@ -32,6 +33,7 @@ public class SmallClassActivity extends BaseClassActivity implements SmallClassC
 
     private ClassVideoAdapter adapter;
     private UserListFragment userListFragment;
+    private VideoStreamScheduler streamScheduler;
 
     @Override
     protected int getLayoutResId() {
@@ -59,6 +61,12 @@ public class SmallClassActivity extends BaseClassActivity implements SmallClassC
             }
         });
         rcv_videos.setAdapter(adapter);
+        streamScheduler = new VideoStreamScheduler(rcv_videos, adapter, getLocal().uid);
+        // tap a tile to keep it in high quality, tap again to follow the speaker
+        adapter.setOnItemClickListener((a, view, position) -> {
+            int uid = adapter.getItem(position).uid;
+            streamScheduler.setPinnedUid(streamScheduler.getPinnedUid() == uid ? 0 : uid);
+        });
 
         layout_tab.addOnTabSelectedListener(this);
 
@@ -74,6 +82,12 @@ public class SmallClassActivity extends BaseClassActivity implements SmallClassC
         return Room.Type.SMALL;
     }
 
+    @Override
+    protected void onDestroy() {
+        streamScheduler.release();
+        super.onDestroy();
+    }
+
     @OnClick(R.id.iv_float)
     public void onClick(View view) {
         boolean isSelected = view.isSelected();
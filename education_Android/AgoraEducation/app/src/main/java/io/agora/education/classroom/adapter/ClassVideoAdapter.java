@@ -18,6 +18,8 @@ import io.agora.education.classroom.widget.RtcVideoView;
 
 public class ClassVideoAdapter extends BaseQuickAdapter<User, ClassVideoAdapter.ViewHolder> {
 
+    private static final int TILE_FIELDS = User.Field.NAME | User.Field.AUDIO | User.Field.VIDEO;
+
     private int localUid;
 
     public ClassVideoAdapter(int localUid) {
@@ -31,21 +33,13 @@ public class ClassVideoAdapter extends BaseQuickAdapter<User, ClassVideoAdapter.
 
             @Override
             public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
-                return oldItem.enableVideo == newItem.enableVideo
-                        && oldItem.enableAudio == newItem.enableAudio
-                        && oldItem.userName.equals(newItem.userName);
+                return (oldItem.diff(newItem) & TILE_FIELDS) == 0;
             }
 
             @Nullable
             @Override
             public Object getChangePayload(@NonNull User oldItem, @NonNull User newItem) {
-                if (oldItem.enableVideo != newItem.enableVideo
-                        || oldItem.enableAudio != newItem.enableAudio
-                        || !oldItem.userName.equals(newItem.userName)) {
-                    return true;
-                } else {
-                    return null;
-                }
+                return (oldItem.diff(newItem) & TILE_FIELDS) != 0 ? true : null;
             }
         });
     }
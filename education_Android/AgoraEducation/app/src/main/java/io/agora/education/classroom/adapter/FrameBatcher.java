@@ -0,0 +1,92 @@
+package io.agora.education.classroom.adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Prepares posted items in background, in order, and hands all items ready within one frame to the
+ * callback together. Call on the main thread.
+ */
+class FrameBatcher<T> {
+
+    interface Frames {
+        /**
+         * run once at the next frame
+         */
+        void post(Runnable frame);
+
+        void remove(Runnable frame);
+    }
+
+    interface Callback<T> {
+        void onBatch(List<T> items);
+    }
+
+    private final Executor background;
+    private final Executor main;
+    private final Frames frames;
+    private final Callback<T> callback;
+    private final Runnable frame = this::flush;
+    private List<T> pending = new ArrayList<>();
+    private int pendingCount;
+    private boolean scheduled, released;
+
+    /**
+     * @param background single threaded, so items keep their order
+     */
+    FrameBatcher(Executor background, Executor main, Frames frames, Callback<T> callback) {
+        this.background = background;
+        this.main = main;
+        this.frames = frames;
+        this.callback = callback;
+    }
+
+    /**
+     * @param prepare run in background before the item is queued, may be null
+     */
+    void post(T item, Runnable prepare) {
+        if (released) return;
+        pendingCount++;
+        // always hop through the background executor to keep items in order
+        background.execute(() -> {
+            if (prepare != null) {
+                prepare.run();
+            }
+            main.execute(() -> enqueue(item));
+        });
+    }
+
+    /**
+     * @return count of posted items not handed to the callback yet
+     */
+    int getPendingCount() {
+        return pendingCount;
+    }
+
+    void release() {
+        released = true;
+        frames.remove(frame);
+        pending.clear();
+    }
+
+    private void enqueue(T item) {
+        if (released) return;
+        pending.add(item);
+        if (!scheduled) {
+            scheduled = true;
+            frames.post(frame);
+        }
+    }
+
+    private void flush() {
+        List<T> items = pending;
+        pending = new ArrayList<>();
+        scheduled = false;
+        pendingCount -= items.size();
+        if (!items.isEmpty()) {
+            callback.onBatch(items);
+        }
+    }
+
+}
@@ -2,18 +2,28 @@ package io.agora.education.classroom.adapter;
 
 import android.content.res.Resources;
 import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 
 import com.chad.library.adapter.base.BaseProviderMultiAdapter;
 import com.chad.library.adapter.base.provider.BaseItemProvider;
 import com.chad.library.adapter.base.viewholder.BaseViewHolder;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
@@ -22,18 +32,89 @@ import io.agora.education.classroom.bean.msg.ChannelMsg;
 
 public class MessageListAdapter extends BaseProviderMultiAdapter<ChannelMsg.ChatMsg> {
 
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExecutorService textExecutor = Executors.newSingleThreadExecutor();
+    private final FrameBatcher<ChannelMsg.ChatMsg> batcher = new FrameBatcher<>(textExecutor, handler::post,
+            new ChoreographerFrames(), this::insert);
+    private final Map<ChannelMsg.ChatMsg, PrecomputedTextCompat> texts = Collections.synchronizedMap(new WeakHashMap<>());
+    /**
+     * text params of the me and other item layouts, known after the first bind of each
+     */
+    private final PrecomputedTextCompat.Params[] textParams = new PrecomputedTextCompat.Params[2];
+    private OnMessagesInsertedListener onMessagesInsertedListener;
+
+    public interface OnMessagesInsertedListener {
+        void onMessagesInserted(int count);
+    }
+
+    /**
+     * must be created on the main thread
+     */
     public MessageListAdapter() {
         addItemProvider(new MeItemProvider());
         addItemProvider(new OtherItemProvider());
         addChildClickViewIds(R.id.tv_content);
+        addChildLongClickViewIds(R.id.tv_content);
+    }
+
+    public void setOnMessagesInsertedListener(OnMessagesInsertedListener listener) {
+        this.onMessagesInsertedListener = listener;
+    }
+
+    /**
+     * Queue a message, its text layout is precomputed in background and all messages queued within
+     * one frame are inserted together. Call on the main thread.
+     */
+    public void post(ChannelMsg.ChatMsg msg) {
+        PrecomputedTextCompat.Params params = textParams[getItemType(msg)];
+        batcher.post(msg, params == null || msg.message == null ? null
+                : () -> texts.put(msg, PrecomputedTextCompat.create(msg.message, params)));
+    }
+
+    /**
+     * @return count of posted messages not inserted yet
+     */
+    public int getPendingCount() {
+        return batcher.getPendingCount();
+    }
+
+    private void insert(List<ChannelMsg.ChatMsg> msgs) {
+        // one notifyItemRangeInserted for the whole batch
+        addData(msgs);
+        if (onMessagesInsertedListener != null) {
+            onMessagesInsertedListener.onMessagesInserted(msgs.size());
+        }
+    }
+
+    public void release() {
+        batcher.release();
+        handler.removeCallbacksAndMessages(null);
+        textExecutor.shutdownNow();
+    }
+
+    private int getItemType(ChannelMsg.ChatMsg msg) {
+        return msg.isMe ? 0 : 1;
     }
 
     @Override
     protected int getItemType(@NonNull List<? extends ChannelMsg.ChatMsg> list, int i) {
-        if (list.get(i).isMe) {
-            return 0;
-        } else {
-            return 1;
+        return getItemType(list.get(i));
+    }
+
+    private static class ChoreographerFrames implements FrameBatcher.Frames {
+        private final Choreographer choreographer = Choreographer.getInstance();
+        private Runnable frame;
+        private final Choreographer.FrameCallback callback = frameTimeNanos -> frame.run();
+
+        @Override
+        public void post(Runnable frame) {
+            this.frame = frame;
+            choreographer.postFrameCallback(callback);
+        }
+
+        @Override
+        public void remove(Runnable frame) {
+            choreographer.removeFrameCallback(callback);
         }
     }
 
@@ -51,13 +132,24 @@ public class MessageListAdapter extends BaseProviderMultiAdapter<ChannelMsg.Chat
         void convert(ChannelMsg.ChatMsg msg) {
             Resources resources = getContext().getResources();
             tv_name.setText(msg.userName);
-            tv_content.setText(msg.message);
+            // paint first, the precomputed text must match what the view measures with
+            int flags = tv_content.getPaintFlags();
             if (msg instanceof ChannelMsg.ReplayMsg) {
                 tv_content.setTextColor(resources.getColor(R.color.blue_1F3DE8));
-                tv_content.getPaint().setFlags(Paint.UNDERLINE_TEXT_FLAG);
+                tv_content.setPaintFlags(flags | Paint.UNDERLINE_TEXT_FLAG);
             } else {
                 tv_content.setTextColor(resources.getColor(R.color.gray_666666));
-                tv_content.getPaint().setFlags(0);
+                tv_content.setPaintFlags(flags & ~Paint.UNDERLINE_TEXT_FLAG);
+            }
+            PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(tv_content);
+            if (!(msg instanceof ChannelMsg.ReplayMsg)) {
+                textParams[getItemType(msg)] = params;
+            }
+            PrecomputedTextCompat text = texts.get(msg);
+            if (text != null && text.getParams().equals(params)) {
+                TextViewCompat.setPrecomputedText(tv_content, text);
+            } else {
+                tv_content.setText(msg.message);
             }
         }
     }
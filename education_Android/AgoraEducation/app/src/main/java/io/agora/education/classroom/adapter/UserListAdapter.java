@@ -5,10 +5,14 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
 
 import com.chad.library.adapter.base.BaseQuickAdapter;
 import com.chad.library.adapter.base.viewholder.BaseViewHolder;
 
+import java.util.List;
+
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import io.agora.education.R;
@@ -16,12 +20,39 @@ import io.agora.education.classroom.bean.channel.User;
 
 public class UserListAdapter extends BaseQuickAdapter<User, UserListAdapter.ViewHolder> {
 
+    private static final int ROW_FIELDS = User.Field.NAME | User.Field.BOARD | User.Field.AUDIO | User.Field.VIDEO;
+
     private int localUid;
 
     public UserListAdapter(int localUid) {
         super(R.layout.item_user_list);
         this.localUid = localUid;
         addChildClickViewIds(R.id.iv_btn_mute_audio, R.id.iv_btn_mute_video);
+        setDiffCallback(new DiffUtil.ItemCallback<User>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+                return oldItem.uid == newItem.uid;
+            }
+
+            @Override
+            public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+                return (oldItem.diff(newItem) & ROW_FIELDS) == 0;
+            }
+
+            @Nullable
+            @Override
+            public Object getChangePayload(@NonNull User oldItem, @NonNull User newItem) {
+                return (oldItem.diff(newItem) & ROW_FIELDS) != 0 ? true : null;
+            }
+        });
+    }
+
+    @Override
+    protected void convert(@NonNull ViewHolder viewHolder, User user, @NonNull List<?> payloads) {
+        super.convert(viewHolder, user, payloads);
+        if (payloads.size() > 0) {
+            convert(viewHolder, user);
+        }
     }
 
     @Override
@@ -0,0 +1,726 @@
+package io.agora.education.classroom.bean;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.agora.education.classroom.bean.channel.Room;
+import io.agora.education.classroom.bean.channel.User;
+import io.agora.education.classroom.bean.msg.ChannelMsg;
+import io.agora.education.classroom.bean.msg.PeerMsg;
+
+/**
+ * Hand-written adapters for the beans exchanged on every RTM message, so the shared
+ * {@link Gson} never has to fall back to reflection for them.
+ */
+final class JsonAdapters {
+
+    private JsonAdapters() {
+    }
+
+    static Gson create() {
+        UserAdapter userAdapter = new UserAdapter();
+        ChatMsgAdapter chatMsgAdapter = new ChatMsgAdapter();
+        return new GsonBuilder()
+                .registerTypeAdapter(User.class, userAdapter)
+                .registerTypeAdapter(Room.class, new RoomAdapter(userAdapter))
+                .registerTypeAdapter(ChannelMsg.ChatMsg.class, chatMsgAdapter)
+                .registerTypeAdapter(ChannelMsg.ReplayMsg.class, new ReplayMsgAdapter(chatMsgAdapter))
+                .registerTypeAdapter(ChannelMsg.RoomMsg.class, new RoomMsgAdapter())
+                .registerTypeAdapter(ChannelMsg.AccessMsg.class, new AccessMsgAdapter())
+                .registerTypeAdapter(ChannelMsg.CoVideoUserMsg.class, new CoVideoUserMsgAdapter(userAdapter))
+                .registerTypeAdapter(PeerMsg.CoVideoMsg.class, new CoVideoMsgAdapter())
+                .registerTypeAdapterFactory(new MsgAdapterFactory())
+                .create();
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static int nextInt(JsonReader in, int defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextInt();
+    }
+
+    private static long nextLong(JsonReader in, long defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return in.nextLong();
+    }
+
+    private static boolean beginObject(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        in.beginObject();
+        return true;
+    }
+
+    private static void stringField(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    static final class UserAdapter extends TypeAdapter<User> {
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            if (user == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            stringField(out, "userId", user.userId);
+            stringField(out, "userName", user.userName);
+            out.name("role").value(user.role);
+            out.name("enableChat").value(user.enableChat);
+            out.name("enableVideo").value(user.enableVideo);
+            out.name("enableAudio").value(user.enableAudio);
+            out.name("uid").value(user.uid);
+            out.name("screenId").value(user.screenId);
+            stringField(out, "rtcToken", user.rtcToken);
+            stringField(out, "rtmToken", user.rtmToken);
+            stringField(out, "screenToken", user.screenToken);
+            out.name("grantBoard").value(user.grantBoard);
+            out.name("coVideo").value(user.coVideo);
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            User user = new User();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "userId":
+                        user.userId = nextString(in);
+                        break;
+                    case "userName":
+                        user.userName = nextString(in);
+                        break;
+                    case "role":
+                        user.role = nextInt(in, user.role);
+                        break;
+                    case "enableChat":
+                        user.enableChat = nextInt(in, user.enableChat);
+                        break;
+                    case "enableVideo":
+                        user.enableVideo = nextInt(in, user.enableVideo);
+                        break;
+                    case "enableAudio":
+                        user.enableAudio = nextInt(in, user.enableAudio);
+                        break;
+                    case "uid":
+                        user.uid = nextInt(in, user.uid);
+                        break;
+                    case "screenId":
+                        user.screenId = nextInt(in, user.screenId);
+                        break;
+                    case "rtcToken":
+                        user.rtcToken = nextString(in);
+                        break;
+                    case "rtmToken":
+                        user.rtmToken = nextString(in);
+                        break;
+                    case "screenToken":
+                        user.screenToken = nextString(in);
+                        break;
+                    case "grantBoard":
+                        user.grantBoard = nextInt(in, user.grantBoard);
+                        break;
+                    case "coVideo":
+                        user.coVideo = nextInt(in, user.coVideo);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return user;
+        }
+    }
+
+    static final class RoomAdapter extends TypeAdapter<Room> {
+        private final UserAdapter userAdapter;
+
+        RoomAdapter(UserAdapter userAdapter) {
+            this.userAdapter = userAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Room room) throws IOException {
+            if (room == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            stringField(out, "roomId", room.roomId);
+            stringField(out, "roomName", room.roomName);
+            stringField(out, "channelName", room.channelName);
+            out.name("type").value(room.type);
+            out.name("courseState").value(room.courseState);
+            out.name("startTime").value(room.startTime);
+            out.name("muteAllChat").value(room.muteAllChat);
+            out.name("isRecording").value(room.isRecording);
+            stringField(out, "recordId", room.recordId);
+            out.name("recordingTime").value(room.recordingTime);
+            out.name("lockBoard").value(room.lockBoard);
+            out.name("onlineUsers").value(room.onlineUsers);
+            if (room.coVideoUsers != null) {
+                out.name("coVideoUsers");
+                writeUsers(out, userAdapter, room.coVideoUsers);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Room read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            Room room = new Room();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "roomId":
+                        room.roomId = nextString(in);
+                        break;
+                    case "roomName":
+                        room.roomName = nextString(in);
+                        break;
+                    case "channelName":
+                        room.channelName = nextString(in);
+                        break;
+                    case "type":
+                        room.type = nextInt(in, room.type);
+                        break;
+                    case "courseState":
+                        room.courseState = nextInt(in, room.courseState);
+                        break;
+                    case "startTime":
+                        room.startTime = nextLong(in, room.startTime);
+                        break;
+                    case "muteAllChat":
+                        room.muteAllChat = nextInt(in, room.muteAllChat);
+                        break;
+                    case "isRecording":
+                        room.isRecording = nextInt(in, room.isRecording);
+                        break;
+                    case "recordId":
+                        room.recordId = nextString(in);
+                        break;
+                    case "recordingTime":
+                        room.recordingTime = nextLong(in, room.recordingTime);
+                        break;
+                    case "lockBoard":
+                        room.lockBoard = nextInt(in, room.lockBoard);
+                        break;
+                    case "onlineUsers":
+                        room.onlineUsers = nextInt(in, room.onlineUsers);
+                        break;
+                    case "coVideoUsers":
+                        room.coVideoUsers = readUsers(in, userAdapter, new ArrayList<>());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return room;
+        }
+    }
+
+    private static void writeUsers(JsonWriter out, UserAdapter adapter, List<User> users) throws IOException {
+        out.beginArray();
+        for (User user : users) {
+            adapter.write(out, user);
+        }
+        out.endArray();
+    }
+
+    private static <L extends List<User>> L readUsers(JsonReader in, UserAdapter adapter, L users) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            users.add(adapter.read(in));
+        }
+        in.endArray();
+        return users;
+    }
+
+    static final class CoVideoUserMsgAdapter extends TypeAdapter<ChannelMsg.CoVideoUserMsg> {
+        private final UserAdapter userAdapter;
+
+        CoVideoUserMsgAdapter(UserAdapter userAdapter) {
+            this.userAdapter = userAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChannelMsg.CoVideoUserMsg msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            writeUsers(out, userAdapter, msg);
+        }
+
+        @Override
+        public ChannelMsg.CoVideoUserMsg read(JsonReader in) throws IOException {
+            return readUsers(in, userAdapter, new ChannelMsg.CoVideoUserMsg());
+        }
+    }
+
+    static class ChatMsgAdapter extends TypeAdapter<ChannelMsg.ChatMsg> {
+        @Override
+        public void write(JsonWriter out, ChannelMsg.ChatMsg msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeFields(out, msg);
+            out.endObject();
+        }
+
+        @Override
+        public ChannelMsg.ChatMsg read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            ChannelMsg.ChatMsg msg = new ChannelMsg.ChatMsg();
+            while (in.hasNext()) {
+                if (!readField(in, in.nextName(), msg)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+
+        void writeFields(JsonWriter out, ChannelMsg.ChatMsg msg) throws IOException {
+            out.name("type").value(msg.type);
+            stringField(out, "userId", msg.userId);
+            stringField(out, "userName", msg.userName);
+            stringField(out, "message", msg.message);
+        }
+
+        boolean readField(JsonReader in, String name, ChannelMsg.ChatMsg msg) throws IOException {
+            switch (name) {
+                case "type":
+                    msg.type = nextInt(in, msg.type);
+                    return true;
+                case "userId":
+                    msg.userId = nextString(in);
+                    return true;
+                case "userName":
+                    msg.userName = nextString(in);
+                    return true;
+                case "message":
+                    msg.message = nextString(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    static final class ReplayMsgAdapter extends TypeAdapter<ChannelMsg.ReplayMsg> {
+        private final ChatMsgAdapter chatMsgAdapter;
+
+        ReplayMsgAdapter(ChatMsgAdapter chatMsgAdapter) {
+            this.chatMsgAdapter = chatMsgAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChannelMsg.ReplayMsg msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            chatMsgAdapter.writeFields(out, msg);
+            stringField(out, "roomId", msg.roomId);
+            stringField(out, "recordId", msg.recordId);
+            out.endObject();
+        }
+
+        @Override
+        public ChannelMsg.ReplayMsg read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            ChannelMsg.ReplayMsg msg = new ChannelMsg.ReplayMsg();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "roomId":
+                        msg.roomId = nextString(in);
+                        break;
+                    case "recordId":
+                        msg.recordId = nextString(in);
+                        break;
+                    default:
+                        if (!chatMsgAdapter.readField(in, name, msg)) {
+                            in.skipValue();
+                        }
+                        break;
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+    }
+
+    static final class RoomMsgAdapter extends TypeAdapter<ChannelMsg.RoomMsg> {
+        @Override
+        public void write(JsonWriter out, ChannelMsg.RoomMsg msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("courseState").value(msg.courseState);
+            out.name("startTime").value(msg.startTime);
+            out.name("muteAllChat").value(msg.muteAllChat);
+            out.name("lockBoard").value(msg.lockBoard);
+            out.endObject();
+        }
+
+        @Override
+        public ChannelMsg.RoomMsg read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            ChannelMsg.RoomMsg msg = new ChannelMsg.RoomMsg();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "courseState":
+                        msg.courseState = nextInt(in, msg.courseState);
+                        break;
+                    case "startTime":
+                        msg.startTime = nextLong(in, msg.startTime);
+                        break;
+                    case "muteAllChat":
+                        msg.muteAllChat = nextInt(in, msg.muteAllChat);
+                        break;
+                    case "lockBoard":
+                        msg.lockBoard = nextInt(in, msg.lockBoard);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+    }
+
+    static final class AccessMsgAdapter extends TypeAdapter<ChannelMsg.AccessMsg> {
+        @Override
+        public void write(JsonWriter out, ChannelMsg.AccessMsg msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("total").value(msg.total);
+            if (msg.list != null) {
+                out.name("list").beginArray();
+                for (ChannelMsg.AccessMsg.AccessState state : msg.list) {
+                    if (state == null) {
+                        out.nullValue();
+                        continue;
+                    }
+                    out.beginObject();
+                    stringField(out, "userId", state.userId);
+                    stringField(out, "userName", state.userName);
+                    out.name("role").value(state.role);
+                    out.name("state").value(state.state);
+                    out.endObject();
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChannelMsg.AccessMsg read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            ChannelMsg.AccessMsg msg = new ChannelMsg.AccessMsg();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "total":
+                        msg.total = nextInt(in, msg.total);
+                        break;
+                    case "list":
+                        msg.list = readStates(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+
+        private List<ChannelMsg.AccessMsg.AccessState> readStates(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<ChannelMsg.AccessMsg.AccessState> list = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                if (!beginObject(in)) {
+                    list.add(null);
+                    continue;
+                }
+                ChannelMsg.AccessMsg.AccessState state = new ChannelMsg.AccessMsg.AccessState();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "userId":
+                            state.userId = nextString(in);
+                            break;
+                        case "userName":
+                            state.userName = nextString(in);
+                            break;
+                        case "role":
+                            state.role = nextInt(in, state.role);
+                            break;
+                        case "state":
+                            state.state = nextInt(in, state.state);
+                            break;
+                        default:
+                            in.skipValue();
+                            break;
+                    }
+                }
+                in.endObject();
+                list.add(state);
+            }
+            in.endArray();
+            return list;
+        }
+    }
+
+    static final class CoVideoMsgAdapter extends TypeAdapter<PeerMsg.CoVideoMsg> {
+        @Override
+        public void write(JsonWriter out, PeerMsg.CoVideoMsg msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("type").value(msg.type);
+            stringField(out, "userId", msg.userId);
+            stringField(out, "userName", msg.userName);
+            out.endObject();
+        }
+
+        @Override
+        public PeerMsg.CoVideoMsg read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            PeerMsg.CoVideoMsg msg = new PeerMsg.CoVideoMsg();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "type":
+                        msg.type = nextInt(in, msg.type);
+                        break;
+                    case "userId":
+                        msg.userId = nextString(in);
+                        break;
+                    case "userName":
+                        msg.userName = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+    }
+
+    /**
+     * Decodes the {@code data} of {@link ChannelMsg} and {@link PeerMsg} straight into the
+     * payload class selected by {@code cmd}, in the same pass as the envelope.
+     */
+    static final class MsgAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() == ChannelMsg.class) {
+                return (TypeAdapter<T>) new ChannelMsgAdapter(gson);
+            } else if (type.getRawType() == PeerMsg.class) {
+                return (TypeAdapter<T>) new PeerMsgAdapter(gson);
+            }
+            return null;
+        }
+    }
+
+    private static abstract class MsgAdapter<M> extends TypeAdapter<M> {
+        private final Gson gson;
+
+        MsgAdapter(Gson gson) {
+            this.gson = gson;
+        }
+
+        abstract M newMsg(int cmd, Object data);
+
+        abstract int getCmd(M msg);
+
+        abstract Object getData(M msg);
+
+        abstract Class<?> getDataType(int cmd);
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(JsonWriter out, M msg) throws IOException {
+            if (msg == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("cmd").value(getCmd(msg));
+            Object data = getData(msg);
+            if (data != null) {
+                out.name("data");
+                ((TypeAdapter<Object>) gson.getAdapter(data.getClass())).write(out, data);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public M read(JsonReader in) throws IOException {
+            if (!beginObject(in)) {
+                return null;
+            }
+            int cmd = 0;
+            boolean hasCmd = false;
+            Object data = null;
+            JsonElement pending = null;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "cmd":
+                        cmd = nextInt(in, cmd);
+                        hasCmd = true;
+                        break;
+                    case "data":
+                        Class<?> dataType = hasCmd ? getDataType(cmd) : null;
+                        if (dataType != null) {
+                            data = gson.getAdapter(dataType).read(in);
+                        } else {
+                            // cmd not seen yet, keep the tree until it is
+                            pending = gson.getAdapter(JsonElement.class).read(in);
+                        }
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            if (pending != null) {
+                Class<?> dataType = getDataType(cmd);
+                if (dataType == null) {
+                    dataType = Object.class;
+                }
+                data = gson.getAdapter(dataType).fromJsonTree(pending);
+            }
+            return newMsg(cmd, data);
+        }
+    }
+
+    static final class ChannelMsgAdapter extends MsgAdapter<ChannelMsg> {
+        ChannelMsgAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        ChannelMsg newMsg(int cmd, Object data) {
+            ChannelMsg msg = new ChannelMsg();
+            msg.cmd = cmd;
+            msg.data = data;
+            return msg;
+        }
+
+        @Override
+        int getCmd(ChannelMsg msg) {
+            return msg.cmd;
+        }
+
+        @Override
+        Object getData(ChannelMsg msg) {
+            return msg.data;
+        }
+
+        @Override
+        Class<?> getDataType(int cmd) {
+            return ChannelMsg.getDataType(cmd);
+        }
+    }
+
+    static final class PeerMsgAdapter extends MsgAdapter<PeerMsg> {
+        PeerMsgAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        PeerMsg newMsg(int cmd, Object data) {
+            PeerMsg msg = new PeerMsg();
+            msg.cmd = cmd;
+            msg.data = data;
+            return msg;
+        }
+
+        @Override
+        int getCmd(PeerMsg msg) {
+            return msg.cmd;
+        }
+
+        @Override
+        Object getData(PeerMsg msg) {
+            return msg.data;
+        }
+
+        @Override
+        Class<?> getDataType(int cmd) {
+            return PeerMsg.getDataType(cmd);
+        }
+    }
+
+}
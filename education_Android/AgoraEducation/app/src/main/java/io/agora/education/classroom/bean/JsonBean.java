@@ -6,12 +6,21 @@ import java.io.Serializable;
 
 public class JsonBean implements Serializable {
 
+    private static final Gson GSON = JsonAdapters.create();
+
+    /**
+     * shared instance with the bean adapters registered, never create a new Gson per call
+     */
+    public static Gson getGson() {
+        return GSON;
+    }
+
     public String toJsonString() {
-        return new Gson().toJson(this);
+        return GSON.toJson(this);
     }
 
     public static <T extends JsonBean> T fromJson(String jsonStr, Class<T> classType) {
-        return new Gson().fromJson(jsonStr, classType);
+        return GSON.fromJson(jsonStr, classType);
     }
 
 }
@@ -0,0 +1,74 @@
+package io.agora.education.classroom.bean.channel;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user difference between two user lists, matched by {@link User#userId}.
+ */
+public class ChannelDelta {
+
+    public final List<User> joined = new ArrayList<>();
+    public final List<User> left = new ArrayList<>();
+    public final List<Change> changed = new ArrayList<>();
+
+    public static class Change {
+        public final User user;
+        @User.Field
+        public final int fields;
+
+        Change(User user, @User.Field int fields) {
+            this.user = user;
+            this.fields = fields;
+        }
+
+        public boolean isChanged(@User.Field int field) {
+            return (fields & field) != 0;
+        }
+    }
+
+    @NonNull
+    public static ChannelDelta diff(@NonNull List<User> oldUsers, @NonNull List<User> newUsers) {
+        ChannelDelta delta = new ChannelDelta();
+        Map<String, User> olds = new LinkedHashMap<>();
+        for (User user : oldUsers) {
+            olds.put(user.userId, user);
+        }
+        for (User user : newUsers) {
+            User old = olds.remove(user.userId);
+            if (old == null) {
+                delta.joined.add(user);
+            } else {
+                int fields = old.diff(user);
+                if (fields != 0) {
+                    delta.changed.add(new Change(user, fields));
+                }
+            }
+        }
+        delta.left.addAll(olds.values());
+        return delta;
+    }
+
+    public boolean isEmpty() {
+        return joined.isEmpty() && left.isEmpty() && changed.isEmpty();
+    }
+
+    public boolean isJoined(User user) {
+        for (User joinedUser : joined) {
+            if (joinedUser.userId != null && joinedUser.userId.equals(user.userId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "joined=" + joined.size() + " left=" + left.size() + " changed=" + changed.size();
+    }
+
+}
@@ -1,14 +1,11 @@
 package io.agora.education.classroom.bean.channel;
 
-import android.text.TextUtils;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.google.gson.Gson;
-
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import io.agora.education.classroom.bean.JsonBean;
 import io.agora.log.LogManager;
@@ -48,23 +45,23 @@ public class ChannelInfo extends JsonBean {
     }
 
     public boolean updateRoom(@NonNull Room room) {
-        Gson gson = new Gson();
-        String json = gson.toJson(room);
-        if (TextUtils.equals(json, gson.toJson(this.room))) {
+        if (room.equals(this.room)) {
             return false;
         }
-        log.d("updateRoom %s", json);
+        log.d("updateRoom %s", room.toJsonString());
         this.room = room;
         return true;
     }
 
     public boolean updateLocal(@Nullable User local) {
-        Gson gson = new Gson();
-        String json = gson.toJson(local);
-        if (TextUtils.equals(json, gson.toJson(this.local))) {
+        if (Objects.equals(local, this.local)) {
+            return false;
+        }
+        if (local == null && !this.local.isCoVideoEnable()) {
+            // already processed to audience
             return false;
         }
-        log.d("updateLocal %s", json);
+        log.d("updateLocal %s", local == null ? null : local.toJsonString());
         if (local == null) {
             // process local to audience
             User localCopy = this.local.copy();
@@ -77,12 +74,14 @@ public class ChannelInfo extends JsonBean {
     }
 
     public boolean updateTeacher(@Nullable User teacher) {
-        Gson gson = new Gson();
-        String json = gson.toJson(teacher);
-        if (TextUtils.equals(json, gson.toJson(this.teacher))) {
+        if (Objects.equals(teacher, this.teacher)) {
             return false;
         }
-        log.d("updateTeacher %s", json);
+        if (teacher == null && !this.teacher.isCoVideoEnable()) {
+            // already processed to audience
+            return false;
+        }
+        log.d("updateTeacher %s", teacher == null ? null : teacher.toJsonString());
         if (teacher == null) {
             // process teacher to audience
             User teacherCopy = this.teacher.copy();
@@ -95,12 +94,12 @@ public class ChannelInfo extends JsonBean {
     }
 
     public boolean updateOthers(@NonNull List<User> others) {
-        Gson gson = new Gson();
-        String json = gson.toJson(others);
-        if (TextUtils.equals(json, gson.toJson(this.others))) {
+        if (others.equals(this.others)) {
             return false;
         }
-        log.d("updateOthers %s", json);
+        if (LogManager.DEBUG) {
+            log.d("updateOthers %s", ChannelDelta.diff(this.others, others));
+        }
         this.others.clear();
         this.others.addAll(others);
         return true;
@@ -2,11 +2,10 @@ package io.agora.education.classroom.bean.channel;
 
 import androidx.annotation.IntDef;
 
-import com.google.gson.Gson;
-
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.List;
+import java.util.Objects;
 
 import io.agora.education.classroom.bean.JsonBean;
 
@@ -71,8 +70,34 @@ public class Room extends JsonBean {
         return lockBoard == Board.LOCK;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Room room = (Room) o;
+        return type == room.type &&
+                courseState == room.courseState &&
+                startTime == room.startTime &&
+                muteAllChat == room.muteAllChat &&
+                isRecording == room.isRecording &&
+                recordingTime == room.recordingTime &&
+                lockBoard == room.lockBoard &&
+                onlineUsers == room.onlineUsers &&
+                Objects.equals(roomId, room.roomId) &&
+                Objects.equals(roomName, room.roomName) &&
+                Objects.equals(channelName, room.channelName) &&
+                Objects.equals(recordId, room.recordId) &&
+                Objects.equals(coVideoUsers, room.coVideoUsers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomId, roomName, channelName, type, courseState, startTime, muteAllChat,
+                isRecording, recordId, recordingTime, lockBoard, onlineUsers, coVideoUsers);
+    }
+
     public Room copy() {
-        return new Gson().fromJson(toJsonString(), Room.class);
+        return getGson().fromJson(getGson().toJsonTree(this), Room.class);
     }
 
 }
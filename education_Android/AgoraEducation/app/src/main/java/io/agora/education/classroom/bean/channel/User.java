@@ -2,10 +2,9 @@ package io.agora.education.classroom.bean.channel;
 
 import androidx.annotation.IntDef;
 
-import com.google.gson.Gson;
-
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Objects;
 
 import io.agora.education.classroom.bean.JsonBean;
 
@@ -73,6 +72,26 @@ public class User extends JsonBean {
         int ENABLE = 1;
     }
 
+    @IntDef(flag = true, value = {Field.NAME, Field.ROLE, Field.CHAT, Field.VIDEO, Field.AUDIO,
+            Field.UID, Field.SCREEN, Field.TOKEN, Field.BOARD, Field.CO_VIDEO, Field.USER_ID})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Field {
+        int NAME = 1;
+        int ROLE = 1 << 1;
+        int CHAT = 1 << 2;
+        int VIDEO = 1 << 3;
+        int AUDIO = 1 << 4;
+        int UID = 1 << 5;
+        int SCREEN = 1 << 6;
+        int TOKEN = 1 << 7;
+        int BOARD = 1 << 8;
+        int CO_VIDEO = 1 << 9;
+        /**
+         * another user, {@link ChannelDelta} reports it as a leave and a join
+         */
+        int USER_ID = 1 << 10;
+    }
+
     public String getUid() {
         return String.valueOf(uid);
     }
@@ -121,8 +140,65 @@ public class User extends JsonBean {
         this.coVideo = disable ? CoVideo.DISABLE : CoVideo.ENABLE;
     }
 
+    /**
+     * @return {@link Field} flags of the attributes that differ from the given user, 0 if none
+     */
+    @Field
+    public int diff(User other) {
+        int fields = 0;
+        if (!Objects.equals(userId, other.userId)) {
+            fields |= Field.USER_ID;
+        }
+        if (!Objects.equals(userName, other.userName)) {
+            fields |= Field.NAME;
+        }
+        if (role != other.role) {
+            fields |= Field.ROLE;
+        }
+        if (enableChat != other.enableChat) {
+            fields |= Field.CHAT;
+        }
+        if (enableVideo != other.enableVideo) {
+            fields |= Field.VIDEO;
+        }
+        if (enableAudio != other.enableAudio) {
+            fields |= Field.AUDIO;
+        }
+        if (uid != other.uid) {
+            fields |= Field.UID;
+        }
+        if (screenId != other.screenId) {
+            fields |= Field.SCREEN;
+        }
+        if (!Objects.equals(rtcToken, other.rtcToken)
+                || !Objects.equals(rtmToken, other.rtmToken)
+                || !Objects.equals(screenToken, other.screenToken)) {
+            fields |= Field.TOKEN;
+        }
+        if (grantBoard != other.grantBoard) {
+            fields |= Field.BOARD;
+        }
+        if (coVideo != other.coVideo) {
+            fields |= Field.CO_VIDEO;
+        }
+        return fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return diff((User) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, userName, role, enableChat, enableVideo, enableAudio, uid,
+                screenId, rtcToken, rtmToken, screenToken, grantBoard, coVideo);
+    }
+
     public User copy() {
-        return new Gson().fromJson(toJsonString(), User.class);
+        return getGson().fromJson(getGson().toJsonTree(this), User.class);
     }
 
 }
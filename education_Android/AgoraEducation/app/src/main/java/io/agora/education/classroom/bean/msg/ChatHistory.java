@@ -0,0 +1,161 @@
+package io.agora.education.classroom.bean.msg;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.agora.base.Callback;
+import io.agora.education.classroom.bean.JsonBean;
+import io.agora.log.LogManager;
+
+/**
+ * Append-only on-disk log of the chat messages of one class, messages are addressed by index.
+ * Writes and reads run in order on one background thread.
+ */
+public class ChatHistory {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char TYPE_CHAT = 'C';
+    private static final char TYPE_REPLAY = 'R';
+
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
+    private final File file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private OutputStream out;
+    /**
+     * start offset of every message, offsets[size] is the file length
+     */
+    private long[] offsets = new long[64];
+    private int size;
+    private boolean released;
+
+    public ChatHistory(@NonNull File file) {
+        this.file = file;
+        executor.execute(() -> {
+            try {
+                File dir = file.getParentFile();
+                if (dir != null && !dir.exists()) {
+                    dir.mkdirs();
+                }
+                out = new BufferedOutputStream(new FileOutputStream(file, false));
+            } catch (IOException e) {
+                log.e("open %s failed %s", file.getName(), e);
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return index of the message, -1 once released
+     */
+    public synchronized int append(ChannelMsg.ChatMsg msg) {
+        if (released) return -1;
+        byte[] bytes = encode(msg);
+        if (size + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[size + 1] = offsets[size] + bytes.length;
+        int index = size++;
+        executor.execute(() -> {
+            if (out == null) return;
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                log.e("append failed %s", e);
+            }
+        });
+        return index;
+    }
+
+    /**
+     * read messages in [from, to) in background
+     */
+    public void read(int from, int to, @NonNull Callback<List<ChannelMsg.ChatMsg>> callback) {
+        long start, end;
+        synchronized (this) {
+            if (released) {
+                callback.onFailure(new IllegalStateException("history released"));
+                return;
+            }
+            from = Math.max(0, from);
+            to = Math.min(size, to);
+            if (from >= to) {
+                callback.onSuccess(new ArrayList<>());
+                return;
+            }
+            start = offsets[from];
+            end = offsets[to];
+        }
+        int count = to - from;
+        executor.execute(() -> {
+            List<ChannelMsg.ChatMsg> msgs = new ArrayList<>(count);
+            try {
+                out.flush();
+                byte[] bytes = new byte[(int) (end - start)];
+                try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                    raf.seek(start);
+                    raf.readFully(bytes);
+                }
+                int lineStart = 0;
+                for (int i = 0; i < bytes.length; i++) {
+                    if (bytes[i] == '\n') {
+                        msgs.add(decode(new String(bytes, lineStart, i - lineStart, UTF_8)));
+                        lineStart = i + 1;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                callback.onFailure(e);
+                return;
+            }
+            callback.onSuccess(msgs);
+        });
+    }
+
+    /**
+     * close and delete the file, later appends and reads do nothing
+     */
+    public synchronized void release() {
+        if (released) return;
+        released = true;
+        executor.execute(() -> {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } catch (IOException ignored) {
+            }
+            file.delete();
+        });
+        executor.shutdown();
+    }
+
+    private static byte[] encode(ChannelMsg.ChatMsg msg) {
+        char type = msg instanceof ChannelMsg.ReplayMsg ? TYPE_REPLAY : TYPE_CHAT;
+        String line = type + (msg.isMe ? "1" : "0") + JsonBean.getGson().toJson(msg) + '\n';
+        return line.getBytes(UTF_8);
+    }
+
+    private static ChannelMsg.ChatMsg decode(String line) {
+        Class<? extends ChannelMsg.ChatMsg> tClass = line.charAt(0) == TYPE_REPLAY
+                ? ChannelMsg.ReplayMsg.class : ChannelMsg.ChatMsg.class;
+        ChannelMsg.ChatMsg msg = JsonBean.getGson().fromJson(line.substring(2), tClass);
+        msg.isMe = line.charAt(1) == '1';
+        return msg;
+    }
+
+}
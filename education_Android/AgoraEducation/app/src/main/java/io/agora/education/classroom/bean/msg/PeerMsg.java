@@ -1,8 +1,7 @@
 package io.agora.education.classroom.bean.msg;
 
 import androidx.annotation.IntDef;
-
-import com.google.gson.Gson;
+import androidx.annotation.Nullable;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -60,8 +59,23 @@ public class PeerMsg extends JsonBean {
         }
     }
 
+    /**
+     * @return payload class of the given cmd, null if unknown
+     */
+    @Nullable
+    public static Class<?> getDataType(@Cmd int cmd) {
+        if (cmd == Cmd.CO_VIDEO) {
+            return CoVideoMsg.class;
+        }
+        return null;
+    }
+
     public <T> T getMsg(Class<T> tClass) {
-        return new Gson().fromJson(new Gson().toJson(data), tClass);
+        if (tClass.isInstance(data)) {
+            // already decoded by cmd
+            return tClass.cast(data);
+        }
+        return getGson().fromJson(getGson().toJsonTree(data), tClass);
     }
 
 }
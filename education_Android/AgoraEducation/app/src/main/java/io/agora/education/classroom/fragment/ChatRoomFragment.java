@@ -6,13 +6,21 @@ import android.view.KeyEvent;
 import android.view.View;
 import android.widget.EditText;
 
+import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.chad.library.adapter.base.BaseQuickAdapter;
 import com.chad.library.adapter.base.listener.OnItemChildClickListener;
+import com.chad.library.adapter.base.listener.OnItemChildLongClickListener;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import butterknife.BindView;
+import io.agora.base.Callback;
 import io.agora.base.ToastManager;
 import io.agora.base.network.RetrofitManager;
 import io.agora.education.BuildConfig;
@@ -24,23 +32,44 @@ import io.agora.education.classroom.BaseClassActivity;
 import io.agora.education.classroom.ReplayActivity;
 import io.agora.education.classroom.adapter.MessageListAdapter;
 import io.agora.education.classroom.bean.msg.ChannelMsg;
+import io.agora.education.classroom.bean.msg.ChatHistory;
+import io.agora.education.classroom.widget.player.VideoCache;
 import io.agora.education.service.RecordService;
 import io.agora.education.service.RoomService;
 import io.agora.education.service.bean.request.ChatReq;
+import io.agora.education.service.bean.response.RecordRes;
 
 import static io.agora.education.classroom.bean.msg.ChannelMsg.ChatMsg.Type.TEXT;
 
-public class ChatRoomFragment extends BaseFragment implements OnItemChildClickListener, View.OnKeyListener {
+public class ChatRoomFragment extends BaseFragment implements OnItemChildClickListener, OnItemChildLongClickListener, View.OnKeyListener {
 
     @BindView(R.id.rcv_msg)
     protected RecyclerView rcv_msg;
     @BindView(R.id.edit_send_msg)
     protected EditText edit_send_msg;
 
+    private static final int PAGE_SIZE = 50;
+    private static final long PREFETCH_DURATION = 10 * 1000;
+
     private MessageListAdapter adapter;
     private boolean isMuteAll;
     private boolean isMuteLocal;
 
+    private ChatHistory history;
+    /**
+     * max messages kept in adapter, older ones are paged in from history when scrolled to
+     */
+    private int maxMessageCount = 200;
+    /**
+     * history index of the first message in adapter
+     */
+    private int windowStart;
+    private boolean isPaging;
+    /**
+     * live messages received while a page is loading, by history index
+     */
+    private final TreeMap<Integer, ChannelMsg.ChatMsg> deferred = new TreeMap<>();
+
     @Override
     protected int getLayoutResId() {
         return R.layout.fragment_chatroom;
@@ -50,6 +79,10 @@ public class ChatRoomFragment extends BaseFragment implements OnItemChildClickLi
     protected void initData() {
         adapter = new MessageListAdapter();
         adapter.setOnItemChildClickListener(this);
+        adapter.setOnItemChildLongClickListener(this);
+        adapter.setOnMessagesInsertedListener(this::onMessagesInserted);
+        String name = context instanceof BaseClassActivity ? ((BaseClassActivity) context).getRoomId() : "chat";
+        history = new ChatHistory(new File(new File(context.getCacheDir(), "chat"), name + ".log"));
     }
 
     @Override
@@ -58,9 +91,35 @@ public class ChatRoomFragment extends BaseFragment implements OnItemChildClickLi
         layoutManager.setStackFromEnd(true);
         rcv_msg.setLayoutManager(layoutManager);
         rcv_msg.setAdapter(adapter);
+        rcv_msg.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy < 0 && layoutManager.findFirstVisibleItemPosition() == 0) {
+                    loadPrevious();
+                } else if (dy > 0 && layoutManager.findLastVisibleItemPosition() == adapter.getItemCount() - 1) {
+                    loadNext();
+                }
+            }
+        });
         edit_send_msg.setOnKeyListener(this);
     }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (adapter != null) {
+            adapter.release();
+        }
+        if (history != null) {
+            history.release();
+            history = null;
+        }
+    }
+
+    public void setMaxMessageCount(int maxMessageCount) {
+        this.maxMessageCount = Math.max(PAGE_SIZE, maxMessageCount);
+    }
+
     public void setMuteAll(boolean isMuteAll) {
         this.isMuteAll = isMuteAll;
         setEditTextEnable(!(this.isMuteAll || isMuteLocal));
@@ -85,43 +144,180 @@ public class ChatRoomFragment extends BaseFragment implements OnItemChildClickLi
     }
 
     public void addMessage(ChannelMsg.ChatMsg chatMsg) {
+        if (history == null) return;
+        if (chatMsg instanceof ChannelMsg.ReplayMsg) {
+            // cache the head while the replay is only announced, so opening it does not race the player
+            getRecord((ChannelMsg.ReplayMsg) chatMsg, false,
+                    (data, url) -> VideoCache.instance().prefetch(url, PREFETCH_DURATION));
+        }
+        int index = history.append(chatMsg);
         runOnUiThread(() -> {
-            if (rcv_msg != null) {
-                adapter.addData(chatMsg);
-                rcv_msg.scrollToPosition(adapter.getItemPosition(chatMsg));
+            if (rcv_msg == null) return;
+            if (isPaging) {
+                // the window moves when the page lands, decide then
+                deferred.put(index, chatMsg);
+            } else if (index == windowEnd() + adapter.getPendingCount()) {
+                // only when showing the latest messages, otherwise it is paged in from history
+                adapter.post(chatMsg);
+            }
+        });
+    }
+
+    private void postDeferred() {
+        for (Map.Entry<Integer, ChannelMsg.ChatMsg> entry : deferred.entrySet()) {
+            int index = entry.getKey();
+            if (index == windowEnd() + adapter.getPendingCount()) {
+                adapter.post(entry.getValue());
+            } else if (index > windowEnd() + adapter.getPendingCount()) {
+                // not contiguous with the window, paged in from history later
+                break;
+            }
+        }
+        deferred.clear();
+    }
+
+    private void onMessagesInserted(int count) {
+        if (rcv_msg != null) {
+            trimStart();
+            rcv_msg.scrollToPosition(adapter.getItemCount() - 1);
+        }
+    }
+
+    private int windowEnd() {
+        return windowStart + adapter.getData().size();
+    }
+
+    private void loadPrevious() {
+        if (history == null || isPaging || windowStart == 0) return;
+        isPaging = true;
+        int from = Math.max(0, windowStart - PAGE_SIZE);
+        history.read(from, windowStart, new PageCallback() {
+            @Override
+            void onPage(List<ChannelMsg.ChatMsg> msgs) {
+                adapter.addData(0, msgs);
+                windowStart -= msgs.size();
+                trimEnd();
+            }
+        });
+    }
+
+    private void loadNext() {
+        if (history == null || isPaging || windowEnd() + adapter.getPendingCount() >= history.size()) return;
+        isPaging = true;
+        history.read(windowEnd(), windowEnd() + PAGE_SIZE, new PageCallback() {
+            @Override
+            void onPage(List<ChannelMsg.ChatMsg> msgs) {
+                adapter.addData(msgs);
+                trimStart();
             }
         });
     }
 
+    private void trimStart() {
+        int count = adapter.getData().size() - maxMessageCount;
+        if (count > 0) {
+            adapter.getData().subList(0, count).clear();
+            adapter.notifyItemRangeRemoved(0, count);
+            windowStart += count;
+        }
+    }
+
+    private void trimEnd() {
+        int size = adapter.getData().size();
+        int count = size - maxMessageCount;
+        if (count > 0) {
+            adapter.getData().subList(size - count, size).clear();
+            adapter.notifyItemRangeRemoved(size - count, count);
+        }
+    }
+
+    private abstract class PageCallback implements Callback<List<ChannelMsg.ChatMsg>> {
+        abstract void onPage(List<ChannelMsg.ChatMsg> msgs);
+
+        @Override
+        public void onSuccess(List<ChannelMsg.ChatMsg> msgs) {
+            runOnUiThread(() -> {
+                isPaging = false;
+                if (rcv_msg != null && !msgs.isEmpty()) {
+                    onPage(msgs);
+                }
+                if (rcv_msg != null) {
+                    postDeferred();
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            runOnUiThread(() -> {
+                isPaging = false;
+                if (rcv_msg != null) {
+                    postDeferred();
+                }
+            });
+        }
+    }
+
     @Override
     public void onItemChildClick(BaseQuickAdapter adapter, View view, int position) {
         if (view.getId() == R.id.tv_content) {
             Object object = adapter.getItem(position);
             if (object instanceof ChannelMsg.ReplayMsg) {
                 ChannelMsg.ReplayMsg msg = (ChannelMsg.ReplayMsg) object;
-                if (context instanceof BaseClassActivity) {
-                    RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RecordService.class)
-                            .record(EduApplication.getAppId(), ((BaseClassActivity) context).getRoomId(), msg.recordId)
-                            .enqueue(new BaseCallback<>(data -> {
-                                if (data.isFinished()) {
-                                    String url = data.getTeacherRecordUrl();
-                                    if (!TextUtils.isEmpty(url)) {
-                                        Intent intent = new Intent(context, ReplayActivity.class);
-                                        intent.putExtra(ReplayActivity.WHITEBOARD_ROOM_ID, data.roomId);
-                                        intent.putExtra(ReplayActivity.WHITEBOARD_START_TIME, data.startTime);
-                                        intent.putExtra(ReplayActivity.WHITEBOARD_END_TIME, data.endTime);
-                                        intent.putExtra(ReplayActivity.WHITEBOARD_URL, url);
-                                        startActivity(intent);
-                                    }
-                                } else {
-                                    ToastManager.showShort(R.string.wait_record);
-                                }
-                            }));
-                }
+                getRecord(msg, true, (data, url) -> {
+                    Intent intent = new Intent(context, ReplayActivity.class);
+                    intent.putExtra(ReplayActivity.WHITEBOARD_ROOM_ID, data.roomId);
+                    intent.putExtra(ReplayActivity.WHITEBOARD_START_TIME, data.startTime);
+                    intent.putExtra(ReplayActivity.WHITEBOARD_END_TIME, data.endTime);
+                    intent.putExtra(ReplayActivity.WHITEBOARD_URL, url);
+                    intent.putExtra(ReplayActivity.RECORD_ID, msg.recordId);
+                    startActivity(intent);
+                });
             }
         }
     }
 
+    /**
+     * long press a replay to download its video for offline playback
+     */
+    @Override
+    public boolean onItemChildLongClick(BaseQuickAdapter adapter, View view, int position) {
+        if (view.getId() == R.id.tv_content) {
+            Object object = adapter.getItem(position);
+            if (object instanceof ChannelMsg.ReplayMsg) {
+                getRecord((ChannelMsg.ReplayMsg) object, true, (data, url) -> {
+                    VideoCache.instance().download(url);
+                    ToastManager.showShort(R.string.replay_downloading);
+                });
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param notify tell the user when the record is not ready yet
+     */
+    private void getRecord(ChannelMsg.ReplayMsg msg, boolean notify, RecordCallback callback) {
+        if (!(context instanceof BaseClassActivity)) return;
+        RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RecordService.class)
+                .record(EduApplication.getAppId(), ((BaseClassActivity) context).getRoomId(), msg.recordId)
+                .enqueue(new BaseCallback<>(data -> {
+                    if (data.isFinished()) {
+                        String url = data.getTeacherRecordUrl();
+                        if (!TextUtils.isEmpty(url)) {
+                            callback.onRecord(data, url);
+                        }
+                    } else if (notify) {
+                        ToastManager.showShort(R.string.wait_record);
+                    }
+                }));
+    }
+
+    private interface RecordCallback {
+        void onRecord(RecordRes record, String url);
+    }
+
     @Override
     public boolean onKey(View view, int keyCode, KeyEvent event) {
         if (!edit_send_msg.isEnabled()) {
@@ -1,9 +1,11 @@
 package io.agora.education.classroom.fragment;
 
+import android.os.Build;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.view.MotionEvent;
 import android.view.View;
+import android.webkit.WebViewClient;
 import android.widget.ProgressBar;
 
 import com.google.android.exoplayer2.ui.PlayerView;
@@ -22,6 +24,8 @@ import io.agora.education.classroom.ReplayActivity;
 import io.agora.education.classroom.widget.player.ReplayControlView;
 import io.agora.whiteboard.netless.listener.ReplayEventListener;
 import io.agora.whiteboard.netless.manager.ReplayManager;
+import io.agora.whiteboard.netless.offline.ReplayBundle;
+import io.agora.whiteboard.netless.offline.ReplayWebViewClient;
 
 public class ReplayBoardFragment extends BaseFragment implements ReplayEventListener {
 
@@ -35,6 +39,7 @@ public class ReplayBoardFragment extends BaseFragment implements ReplayEventList
     private WhiteSdk whiteSdk;
     private ReplayManager replayManager;
     private long startTime, endTime;
+    private String recordId;
 
     @Override
     protected int getLayoutResId() {
@@ -47,6 +52,7 @@ public class ReplayBoardFragment extends BaseFragment implements ReplayEventList
         if (bundle != null) {
             startTime = bundle.getLong(ReplayActivity.WHITEBOARD_START_TIME, 0);
             endTime = bundle.getLong(ReplayActivity.WHITEBOARD_END_TIME, 0);
+            recordId = bundle.getString(ReplayActivity.RECORD_ID);
         }
     }
 
@@ -54,6 +60,12 @@ public class ReplayBoardFragment extends BaseFragment implements ReplayEventList
     protected void initView() {
         WhiteSdkConfiguration configuration = new WhiteSdkConfiguration(DeviceType.touch, 10, 0.1);
         whiteSdk = new WhiteSdk(white_board_view, context, configuration);
+        // slices are kept per recording and served locally once loaded. The sdk client can only be read
+        // back and wrapped from API 26, older releases load everything from the network
+        if (!TextUtils.isEmpty(recordId) && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            WebViewClient sdkClient = white_board_view.getWebViewClient();
+            white_board_view.setWebViewClient(new ReplayWebViewClient(ReplayBundle.open(context, recordId), sdkClient));
+        }
         replayManager = new ReplayManager();
         replayManager.setListener(this);
     }
@@ -45,7 +45,7 @@ public class UserListFragment extends BaseFragment implements OnItemChildClickLi
     }
 
     public void setUserList(List<User> userList) {
-        adapter.setNewData(userList);
+        adapter.setDiffNewData(userList);
     }
 
     @Override
@@ -0,0 +1,213 @@
+package io.agora.education.classroom.mediator;
+
+import android.os.SystemClock;
+import android.util.SparseIntArray;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+import io.agora.education.classroom.adapter.ClassVideoAdapter;
+import io.agora.education.classroom.bean.channel.User;
+import io.agora.log.LogManager;
+import io.agora.rtc.Constants;
+import io.agora.sdk.listener.RtcEventListener;
+import io.agora.sdk.manager.RtcManager;
+
+/**
+ * Subscribes remote videos of a tile list by what is on screen: the high stream for the focused tile,
+ * the low stream for the other visible tiles, nothing for tiles scrolled out.
+ * <p>
+ * The focused tile is the one pinned by the user, else the active speaker, else the teacher.
+ * Main thread only.
+ */
+public class VideoStreamScheduler {
+
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
+    private static final int MUTED = -1;
+    private static final int SPEAKER_INTERVAL = 300;
+    /**
+     * the speaker keeps the high stream at least this long, so crosstalk does not flip streams
+     */
+    private static final long MIN_SPEAKER_MS = 2000;
+
+    private final RecyclerView recyclerView;
+    private final ClassVideoAdapter adapter;
+    private final int localUid;
+    /**
+     * stream type applied per remote uid, {@link #MUTED} when unsubscribed
+     */
+    private final SparseIntArray applied = new SparseIntArray();
+    private int pinnedUid, speakerUid, latestSpeakerUid;
+    private long speakerTime;
+    private boolean scheduled, released;
+    private final Runnable updateRunnable = () -> {
+        scheduled = false;
+        update();
+    };
+    private final Runnable speakerRunnable = this::applySpeaker;
+
+    public VideoStreamScheduler(@NonNull RecyclerView recyclerView, @NonNull ClassVideoAdapter adapter, int localUid) {
+        this.recyclerView = recyclerView;
+        this.adapter = adapter;
+        this.localUid = localUid;
+        recyclerView.addOnScrollListener(scrollListener);
+        adapter.registerAdapterDataObserver(dataObserver);
+        RtcManager.instance().registerListener(rtcEventListener);
+        RtcManager.instance().enableAudioVolumeIndication(SPEAKER_INTERVAL, 3);
+    }
+
+    /**
+     * pin a tile to the high stream, 0 to follow the speaker again
+     */
+    public void setPinnedUid(int uid) {
+        pinnedUid = uid;
+        schedule();
+    }
+
+    public int getPinnedUid() {
+        return pinnedUid;
+    }
+
+    /**
+     * also unmutes the videos muted here, the engine would keep them muted in the next class
+     */
+    public void release() {
+        released = true;
+        recyclerView.removeCallbacks(updateRunnable);
+        recyclerView.removeCallbacks(speakerRunnable);
+        for (int i = 0; i < applied.size(); i++) {
+            if (applied.valueAt(i) == MUTED) {
+                RtcManager.instance().muteRemoteVideoStream(applied.keyAt(i), false);
+            }
+        }
+        applied.clear();
+        recyclerView.removeOnScrollListener(scrollListener);
+        adapter.unregisterAdapterDataObserver(dataObserver);
+        RtcManager.instance().unregisterListener(rtcEventListener);
+        RtcManager.instance().enableAudioVolumeIndication(0, 3);
+    }
+
+    private void schedule() {
+        if (scheduled || released) return;
+        scheduled = true;
+        // after the layout pass, so visible positions are up to date
+        recyclerView.post(updateRunnable);
+    }
+
+    /**
+     * promote the latest speaker, or wait until the current one has held the high stream long enough
+     */
+    private void applySpeaker() {
+        if (released || latestSpeakerUid == speakerUid) return;
+        long wait = speakerTime + MIN_SPEAKER_MS - SystemClock.elapsedRealtime();
+        if (wait > 0) {
+            recyclerView.removeCallbacks(speakerRunnable);
+            recyclerView.postDelayed(speakerRunnable, wait);
+            return;
+        }
+        speakerUid = latestSpeakerUid;
+        speakerTime = SystemClock.elapsedRealtime();
+        schedule();
+    }
+
+    private void update() {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) return;
+        int first = ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+        int last = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        List<User> users = adapter.getData();
+        int focusUid = getFocusUid(users);
+
+        SparseIntArray previous = applied.clone();
+        applied.clear();
+        for (int i = 0; i < users.size(); i++) {
+            int uid = users.get(i).uid;
+            if (uid == localUid) continue;
+            int state;
+            if (first == RecyclerView.NO_POSITION || i < first || i > last) {
+                state = MUTED;
+            } else {
+                state = uid == focusUid ? Constants.VIDEO_STREAM_HIGH : Constants.VIDEO_STREAM_LOW;
+            }
+            applied.put(uid, state);
+            // users not seen yet receive the default low stream
+            int old = previous.get(uid, Constants.VIDEO_STREAM_LOW);
+            if (old == state) continue;
+            if (state == MUTED) {
+                RtcManager.instance().muteRemoteVideoStream(uid, true);
+            } else {
+                if (old == MUTED) {
+                    RtcManager.instance().muteRemoteVideoStream(uid, false);
+                }
+                RtcManager.instance().setRemoteVideoStreamType(uid, state);
+            }
+            log.d("stream of %d %d -> %d", uid, old, state);
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            int uid = previous.keyAt(i);
+            // the engine keeps the mute of a uid across rejoins
+            if (previous.valueAt(i) == MUTED && applied.indexOfKey(uid) < 0) {
+                RtcManager.instance().muteRemoteVideoStream(uid, false);
+            }
+        }
+    }
+
+    private int getFocusUid(List<User> users) {
+        int teacherUid = 0;
+        boolean hasPinned = false, hasSpeaker = false;
+        for (User user : users) {
+            if (user.uid == pinnedUid) hasPinned = true;
+            if (user.uid == speakerUid) hasSpeaker = true;
+            if (user.isTeacher()) teacherUid = user.uid;
+        }
+        if (hasPinned && pinnedUid != 0) return pinnedUid;
+        if (hasSpeaker && speakerUid != 0) return speakerUid;
+        return teacherUid;
+    }
+
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            schedule();
+        }
+    };
+
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            schedule();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            schedule();
+        }
+    };
+
+    private final RtcEventListener rtcEventListener = new RtcEventListener() {
+        @Override
+        public void onActiveSpeaker(int uid) {
+            recyclerView.post(() -> {
+                // 0 is the local user
+                if (uid == 0) return;
+                latestSpeakerUid = uid;
+                applySpeaker();
+            });
+        }
+    };
+
+}
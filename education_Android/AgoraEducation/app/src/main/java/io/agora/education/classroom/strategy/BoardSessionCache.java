@@ -0,0 +1,132 @@
+package io.agora.education.classroom.strategy;
+
+import android.text.TextUtils;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.agora.base.Callback;
+import io.agora.base.network.RetrofitManager;
+import io.agora.education.BuildConfig;
+import io.agora.education.EduApplication;
+import io.agora.education.base.BaseCallback;
+import io.agora.education.service.RoomService;
+import io.agora.education.service.bean.response.RoomBoardRes;
+import io.agora.log.LogManager;
+
+/**
+ * Whiteboard credentials per room, fetched once and kept until the token is about to expire.
+ * Concurrent requests for the same room share one call. Main thread only.
+ */
+public final class BoardSessionCache {
+
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
+    /**
+     * lifetime assumed for tokens without an expiry
+     */
+    private static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(1);
+    /**
+     * refresh this long before the token expires, so the board can still connect with it
+     */
+    private static final long EXPIRY_MARGIN = TimeUnit.MINUTES.toMillis(1);
+
+    private static BoardSessionCache instance;
+
+    private final Map<String, Session> sessions = new HashMap<>();
+    private final Map<String, List<Callback<RoomBoardRes>>> requests = new HashMap<>();
+
+    private BoardSessionCache() {
+    }
+
+    public static BoardSessionCache instance() {
+        if (instance == null) {
+            synchronized (BoardSessionCache.class) {
+                if (instance == null) {
+                    instance = new BoardSessionCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void get(@NonNull String roomId, @NonNull Callback<RoomBoardRes> callback) {
+        Session session = sessions.get(roomId);
+        if (session != null && System.currentTimeMillis() < session.expireAt - EXPIRY_MARGIN) {
+            callback.onSuccess(session.board);
+            return;
+        }
+        List<Callback<RoomBoardRes>> callbacks = requests.get(roomId);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        requests.put(roomId, callbacks);
+        RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RoomService.class)
+                .roomBoard(EduApplication.getAppId(), roomId)
+                .enqueue(new BaseCallback<>(data -> {
+                    long expireAt = parseExpireAt(data.boardToken);
+                    if (expireAt <= 0) {
+                        expireAt = System.currentTimeMillis() + DEFAULT_TTL;
+                    }
+                    sessions.put(roomId, new Session(data, expireAt));
+                    log.d("board session of %s cached until %d", roomId, expireAt);
+                    for (Callback<RoomBoardRes> c : requests.remove(roomId)) {
+                        c.onSuccess(data);
+                    }
+                }, throwable -> {
+                    for (Callback<RoomBoardRes> c : requests.remove(roomId)) {
+                        c.onFailure(throwable);
+                    }
+                }));
+    }
+
+    /**
+     * room tokens are a prefix followed by base64 query parameters, {@code expireAt} is in ms when present
+     *
+     * @return 0 when unknown
+     */
+    static long parseExpireAt(@Nullable String token) {
+        if (TextUtils.isEmpty(token)) return 0;
+        int start = token.startsWith("NETLESSROOM_") ? "NETLESSROOM_".length() : token.startsWith("WHITE") ? "WHITE".length() : 0;
+        String query;
+        try {
+            // accept both alphabets
+            String payload = token.substring(start).replace('+', '-').replace('/', '_');
+            query = new String(Base64.decode(payload, Base64.URL_SAFE | Base64.NO_WRAP), Charset.forName("UTF-8"));
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+        for (String param : query.split("&")) {
+            if (param.startsWith("expireAt=")) {
+                try {
+                    return Long.parseLong(param.substring("expireAt=".length()));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static class Session {
+        final RoomBoardRes board;
+        final long expireAt;
+
+        Session(RoomBoardRes board, long expireAt) {
+            this.board = board;
+            this.expireAt = expireAt;
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package io.agora.education.classroom.strategy;
 
 import java.util.List;
 
+import io.agora.education.classroom.bean.channel.ChannelDelta;
 import io.agora.education.classroom.bean.channel.Room;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.classroom.bean.msg.ChannelMsg;
@@ -15,7 +16,7 @@ public interface ChannelEventListener {
 
     void onLocalChanged(User local);
 
-    void onCoVideoUsersChanged(List<User> users);
+    void onCoVideoUsersChanged(List<User> users, ChannelDelta delta);
 
     void onChannelMsgReceived(ChannelMsg msg);
 
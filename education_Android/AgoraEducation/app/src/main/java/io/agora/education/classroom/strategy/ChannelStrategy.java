@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import io.agora.base.Callback;
+import io.agora.education.classroom.bean.channel.ChannelDelta;
 import io.agora.education.classroom.bean.channel.ChannelInfo;
 import io.agora.education.classroom.bean.channel.Room;
 import io.agora.education.classroom.bean.channel.User;
@@ -21,6 +22,7 @@ public abstract class ChannelStrategy<T> {
 
     private String channelId;
     private ChannelInfo channelInfo;
+    private List<User> coVideoUsers;
 
     @Nullable
     ChannelEventListener channelEventListener;
@@ -106,14 +108,24 @@ public abstract class ChannelStrategy<T> {
     }
 
     private void onCoVideoUsersChanged() {
-        if (channelEventListener != null) {
-            List<User> coVideoUsers = new ArrayList<>();
-            for (User user : getAllUsers()) {
-                if (user.isCoVideoEnable()) {
-                    coVideoUsers.add(user);
-                }
+        List<User> coVideoUsers = new ArrayList<>();
+        for (User user : getAllUsers()) {
+            if (user.isCoVideoEnable()) {
+                coVideoUsers.add(user);
             }
-            channelEventListener.onCoVideoUsersChanged(coVideoUsers);
+        }
+        ChannelDelta delta;
+        if (this.coVideoUsers == null) {
+            // first dispatch always goes out so listeners can init their views
+            delta = ChannelDelta.diff(new ArrayList<>(), coVideoUsers);
+        } else {
+            delta = ChannelDelta.diff(this.coVideoUsers, coVideoUsers);
+            if (delta.isEmpty()) return;
+        }
+        log.d("onCoVideoUsersChanged %s", delta);
+        this.coVideoUsers = coVideoUsers;
+        if (channelEventListener != null) {
+            channelEventListener.onCoVideoUsersChanged(coVideoUsers, delta);
         }
     }
 
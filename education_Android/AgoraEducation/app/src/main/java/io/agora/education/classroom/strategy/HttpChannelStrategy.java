@@ -3,7 +3,10 @@ package io.agora.education.classroom.strategy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.agora.base.Callback;
 import io.agora.base.network.RetrofitManager;
@@ -17,8 +20,10 @@ import io.agora.education.classroom.bean.msg.PeerMsg;
 import io.agora.education.service.RoomService;
 import io.agora.education.service.bean.request.UserReq;
 import io.agora.education.service.bean.response.RoomRes;
+import io.agora.log.LogManager;
 import io.agora.rtm.RtmChannelMember;
 import io.agora.rtm.RtmMessage;
+import io.agora.rtm.RtmStatusCode;
 import io.agora.sdk.listener.RtmEventListener;
 import io.agora.sdk.manager.RtcManager;
 import io.agora.sdk.manager.RtmManager;
@@ -26,7 +31,18 @@ import io.agora.sdk.manager.SdkManager;
 
 public class HttpChannelStrategy extends ChannelStrategy<RoomRes> {
 
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
     private RoomService roomService;
+    /**
+     * bumped on every room or user delta received by rtm, local change and reconnection,
+     * a full fetch started before one of them is stale
+     */
+    private final AtomicInteger revision = new AtomicInteger();
+    private volatile boolean synced;
+    private volatile int onlineUsers;
+
+    private static final int MAX_QUERY_ATTEMPTS = 3;
 
     public HttpChannelStrategy(String channelId, User local) {
         super(channelId, local);
@@ -66,17 +82,44 @@ public class HttpChannelStrategy extends ChannelStrategy<RoomRes> {
 
     @Override
     public void queryOnlineUserNum(@NonNull Callback<Integer> callback) {
-        roomService.room(EduApplication.getAppId(), getChannelId()).enqueue(new BaseCallback<>(
-                data -> callback.onSuccess(data.room.onlineUsers),
-                callback::onFailure)
-        );
+        if (synced) {
+            // kept up to date by access msg
+            callback.onSuccess(onlineUsers);
+            return;
+        }
+        queryChannelInfo(new Callback<Void>() {
+            @Override
+            public void onSuccess(Void aVoid) {
+                callback.onSuccess(onlineUsers);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                callback.onFailure(throwable);
+            }
+        });
     }
 
     @Override
     public void queryChannelInfo(@Nullable Callback<Void> callback) {
+        queryChannelInfo(callback, 1);
+    }
+
+    private void queryChannelInfo(@Nullable Callback<Void> callback, int attempt) {
+        int requestRevision = revision.get();
         roomService.room(EduApplication.getAppId(), getChannelId())
                 .enqueue(new BaseCallback<>(data -> {
-                    parseChannelInfo(data);
+                    if (getRoom() == null || requestRevision == revision.get()) {
+                        parseChannelInfo(data);
+                    } else if (attempt < MAX_QUERY_ATTEMPTS) {
+                        // rtm deltas arrived meanwhile and are newer than this response, fetch again
+                        log.d("drop stale room info, revision %d -> %d", requestRevision, revision.get());
+                        queryChannelInfo(callback, attempt + 1);
+                        return;
+                    } else {
+                        // left unsynced, retried on the next query or reconnection
+                        log.w("room info still stale after %d attempts", attempt);
+                    }
                     if (callback != null) {
                         callback.onSuccess(null);
                     }
@@ -90,25 +133,44 @@ public class HttpChannelStrategy extends ChannelStrategy<RoomRes> {
     @Override
     public void parseChannelInfo(RoomRes data) {
         Room room = data.room;
+        onlineUsers = room.onlineUsers;
+        synced = true;
         updateRoom(room);
         updateCoVideoUsers(room.coVideoUsers);
     }
 
     @Override
     public void updateLocalAttribute(User local, @Nullable Callback<Void> callback) {
+        User previous = getLocal();
+        // apply optimistically, the user msg broadcast by server reconciles it
+        applyLocal(local);
         roomService.user(EduApplication.getAppId(), getChannelId(), local.userId, UserReq.fromUser(local))
                 .enqueue(new BaseCallback<>(data -> {
                     if (callback != null) {
                         callback.onSuccess(null);
                     }
-                    queryChannelInfo(null);
                 }, throwable -> {
+                    if (local.equals(getLocal())) {
+                        applyLocal(previous);
+                    }
                     if (callback != null) {
                         callback.onFailure(throwable);
                     }
                 }));
     }
 
+    private void applyLocal(User local) {
+        revision.incrementAndGet();
+        List<User> users = new ArrayList<>();
+        User teacher = getTeacher();
+        if (teacher != null) {
+            users.add(teacher);
+        }
+        users.add(local);
+        users.addAll(getOthers());
+        updateCoVideoUsers(users);
+    }
+
     @Override
     public void clearLocalAttribute(@Nullable Callback<Void> callback) {
         UserReq req = UserReq.fromUser(getLocal());
@@ -141,10 +203,34 @@ public class HttpChannelStrategy extends ChannelStrategy<RoomRes> {
             });
         }
 
+        @Override
+        public void onConnectionStateChanged(int state, int reason) {
+            if (state == RtmStatusCode.ConnectionState.CONNECTION_STATE_RECONNECTING) {
+                // deltas may be lost while reconnecting
+                synced = false;
+                revision.incrementAndGet();
+            } else if (state == RtmStatusCode.ConnectionState.CONNECTION_STATE_CONNECTED && !synced
+                    && getRoom() != null) {
+                queryChannelInfo(null);
+            }
+        }
+
         @Override
         public void onMessageReceived(RtmMessage rtmMessage, RtmChannelMember rtmChannelMember) {
+            ChannelMsg msg = ChannelMsg.fromJson(rtmMessage.getText(), ChannelMsg.class);
+            switch (msg.cmd) {
+                case ChannelMsg.Cmd.ROOM:
+                case ChannelMsg.Cmd.USER:
+                    revision.incrementAndGet();
+                    break;
+                case ChannelMsg.Cmd.ACCESS:
+                    ChannelMsg.AccessMsg accessMsg = msg.getMsg(ChannelMsg.AccessMsg.class);
+                    if (accessMsg != null) {
+                        onlineUsers = accessMsg.total;
+                    }
+                    break;
+            }
             if (channelEventListener != null) {
-                ChannelMsg msg = ChannelMsg.fromJson(rtmMessage.getText(), ChannelMsg.class);
                 channelEventListener.onChannelMsgReceived(msg);
             }
         }
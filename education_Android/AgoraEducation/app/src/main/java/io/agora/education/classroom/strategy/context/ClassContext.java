@@ -1,8 +1,8 @@
 package io.agora.education.classroom.strategy.context;
 
 import android.annotation.SuppressLint;
-import android.app.Activity;
 import android.content.Context;
+import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -11,17 +11,15 @@ import java.util.Date;
 import java.util.List;
 
 import io.agora.base.Callback;
-import io.agora.base.network.RetrofitManager;
-import io.agora.education.BuildConfig;
-import io.agora.education.EduApplication;
-import io.agora.education.base.BaseCallback;
+import io.agora.education.classroom.bean.channel.ChannelDelta;
 import io.agora.education.classroom.bean.channel.Room;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.classroom.bean.msg.ChannelMsg;
 import io.agora.education.classroom.bean.msg.PeerMsg;
+import io.agora.education.classroom.strategy.BoardSessionCache;
 import io.agora.education.classroom.strategy.ChannelEventListener;
 import io.agora.education.classroom.strategy.ChannelStrategy;
-import io.agora.education.service.RoomService;
+import io.agora.education.service.bean.response.RoomBoardRes;
 import io.agora.rtc.Constants;
 import io.agora.sdk.listener.RtcEventListener;
 import io.agora.sdk.manager.RtcManager;
@@ -33,14 +31,15 @@ import static io.agora.education.classroom.bean.msg.ChannelMsg.Cmd.USER;
 
 public abstract class ClassContext implements ChannelEventListener {
 
-    private Context context;
+    private EventCoalescer coalescer;
 
     @NonNull
     ChannelStrategy channelStrategy;
     ClassEventListener classEventListener;
+    private String boardId, boardToken;
 
     ClassContext(Context context, @NonNull ChannelStrategy strategy) {
-        this.context = context;
+        coalescer = new EventCoalescer();
         channelStrategy = strategy;
         channelStrategy.setChannelEventListener(this);
         RtcManager.instance().registerListener(rtcEventListener);
@@ -79,17 +78,34 @@ public abstract class ClassContext implements ChannelEventListener {
     public final void release() {
         channelStrategy.release();
         RtcManager.instance().unregisterListener(rtcEventListener);
+        coalescer.cancel();
         leaveChannel();
     }
 
     void runListener(Runnable runnable) {
+        runListener(null, runnable);
+    }
+
+    /**
+     * @param key state events posted with the same key within one frame are merged, only the latest one runs
+     */
+    void runListener(@Nullable String key, Runnable runnable) {
         if (classEventListener != null) {
-            if (context instanceof Activity) {
-                ((Activity) context).runOnUiThread(runnable);
-            }
+            coalescer.post(key, () -> {
+                if (classEventListener != null) {
+                    runnable.run();
+                }
+            });
         }
     }
 
+    /**
+     * @return count of superseded ui events merged away
+     */
+    public final long getMergedEventCount() {
+        return coalescer.getMergedCount();
+    }
+
     @Override
     public void onChannelInfoInit() {
         runListener(() -> classEventListener.onTeacherInit(channelStrategy.getTeacher()));
@@ -97,27 +113,47 @@ public abstract class ClassContext implements ChannelEventListener {
 
     @Override
     public void onRoomChanged(Room room) {
-        runListener(() -> {
+        runListener("onRoomChanged", () -> {
             classEventListener.onClassStateChanged(room.isCourseBegin(), new Date().getTime() - room.startTime);
-            // TODO load white board
-            RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RoomService.class)
-                    .roomBoard(EduApplication.getAppId(), room.roomId)
-                    .enqueue(new BaseCallback<>(data -> classEventListener.onWhiteboardChanged(data.boardId, data.boardToken)));
+            loadBoard(room.roomId);
             classEventListener.onLockWhiteboard(room.isBoardLock());
             classEventListener.onMuteAllChat(!room.isAllChatEnable());
         });
     }
 
+    /**
+     * credentials are cached, the board is only reloaded when they change
+     */
+    private void loadBoard(String roomId) {
+        BoardSessionCache.instance().get(roomId, new Callback<RoomBoardRes>() {
+            @Override
+            public void onSuccess(RoomBoardRes res) {
+                if (TextUtils.equals(res.boardId, boardId) && TextUtils.equals(res.boardToken, boardToken)) {
+                    return;
+                }
+                boardId = res.boardId;
+                boardToken = res.boardToken;
+                if (classEventListener != null) {
+                    classEventListener.onWhiteboardChanged(boardId, boardToken);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+            }
+        });
+    }
+
     @Override
     public void onLocalChanged(User local) {
         RtcManager.instance().setClientRole(local.isCoVideoEnable() ? Constants.CLIENT_ROLE_BROADCASTER : Constants.CLIENT_ROLE_AUDIENCE);
         RtcManager.instance().muteLocalVideoStream(!local.isVideoEnable());
         RtcManager.instance().muteLocalAudioStream(!local.isAudioEnable());
-        runListener(() -> classEventListener.onMuteLocalChat(!local.isChatEnable()));
+        runListener("onMuteLocalChat", () -> classEventListener.onMuteLocalChat(!local.isChatEnable()));
     }
 
     @Override
-    public void onCoVideoUsersChanged(List<User> users) {
+    public void onCoVideoUsersChanged(List<User> users, ChannelDelta delta) {
     }
 
     @Override
@@ -155,7 +191,7 @@ public abstract class ClassContext implements ChannelEventListener {
         @Override
         public void onNetworkQuality(int uid, int txQuality, int rxQuality) {
             if (uid == 0) {
-                runListener(() -> classEventListener.onNetworkQualityChanged(Math.max(txQuality, rxQuality)));
+                runListener("onNetworkQualityChanged", () -> classEventListener.onNetworkQualityChanged(Math.max(txQuality, rxQuality)));
             }
         }
 
@@ -164,7 +200,7 @@ public abstract class ClassContext implements ChannelEventListener {
             User teacher = channelStrategy.getTeacher();
             if (teacher != null) {
                 if (uid == teacher.screenId) {
-                    runListener(() -> classEventListener.onScreenShareJoined(uid));
+                    runListener("screenShare", () -> classEventListener.onScreenShareJoined(uid));
                 }
             }
         }
@@ -174,7 +210,7 @@ public abstract class ClassContext implements ChannelEventListener {
             User teacher = channelStrategy.getTeacher();
             if (teacher != null) {
                 if (uid == teacher.screenId) {
-                    runListener(() -> classEventListener.onScreenShareOffline(uid));
+                    runListener("screenShare", () -> classEventListener.onScreenShareOffline(uid));
                 }
             }
         }
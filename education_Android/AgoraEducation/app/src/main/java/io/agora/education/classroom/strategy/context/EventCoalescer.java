@@ -0,0 +1,70 @@
+package io.agora.education.classroom.strategy.context;
+
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects ui events posted from any thread and runs them on the next vsync.
+ * Events posted with the same key within one frame are merged, only the latest one runs.
+ * Events without key are all delivered in posting order.
+ * <p>
+ * Must be created on the main thread.
+ */
+final class EventCoalescer implements Choreographer.FrameCallback {
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private LinkedHashMap<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    private long mergedCount;
+
+    void post(@Nullable Object key, Runnable runnable) {
+        synchronized (this) {
+            if (key == null) {
+                key = new Object();
+            } else if (pending.remove(key) != null) {
+                // superseded state, move the latest to the end to keep event order
+                mergedCount++;
+            }
+            pending.put(key, runnable);
+            if (!scheduled) {
+                scheduled = true;
+                choreographer.postFrameCallback(this);
+            }
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        LinkedHashMap<Object, Runnable> events;
+        synchronized (this) {
+            events = pending;
+            pending = new LinkedHashMap<>();
+            scheduled = false;
+        }
+        for (Map.Entry<Object, Runnable> entry : events.entrySet()) {
+            entry.getValue().run();
+        }
+    }
+
+    void cancel() {
+        synchronized (this) {
+            pending.clear();
+            if (scheduled) {
+                scheduled = false;
+                choreographer.removeFrameCallback(this);
+            }
+        }
+    }
+
+    /**
+     * @return count of events dropped because a newer event with the same key arrived in the same frame
+     */
+    synchronized long getMergedCount() {
+        return mergedCount;
+    }
+
+}
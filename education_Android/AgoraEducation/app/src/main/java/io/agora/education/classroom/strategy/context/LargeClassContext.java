@@ -14,6 +14,7 @@ import io.agora.education.BuildConfig;
 import io.agora.education.EduApplication;
 import io.agora.education.R;
 import io.agora.education.base.BaseCallback;
+import io.agora.education.classroom.bean.channel.ChannelDelta;
 import io.agora.education.classroom.bean.channel.Room;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.classroom.bean.msg.PeerMsg;
@@ -51,16 +52,16 @@ public class LargeClassContext extends ClassContext {
     public void onRoomChanged(Room room) {
         super.onRoomChanged(room);
         if (classEventListener instanceof LargeClassEventListener) {
-            runListener(() -> ((LargeClassEventListener) classEventListener).onUserCountChanged(room.onlineUsers));
+            runListener("onUserCountChanged", () -> ((LargeClassEventListener) classEventListener).onUserCountChanged(room.onlineUsers));
         }
     }
 
     @Override
-    public void onCoVideoUsersChanged(List<User> users) {
-        super.onCoVideoUsersChanged(users);
+    public void onCoVideoUsersChanged(List<User> users, ChannelDelta delta) {
+        super.onCoVideoUsersChanged(users, delta);
         if (classEventListener instanceof LargeClassEventListener) {
             LargeClassEventListener listener = (LargeClassEventListener) classEventListener;
-            runListener(() -> {
+            runListener("onCoVideoUsersChanged", () -> {
                 User linkUser = null;
                 for (User user : users) {
                     if (user.isTeacher()) {
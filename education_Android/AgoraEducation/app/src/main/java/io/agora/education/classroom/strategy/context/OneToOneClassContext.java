@@ -7,6 +7,7 @@ import androidx.annotation.NonNull;
 import java.util.List;
 
 import io.agora.base.Callback;
+import io.agora.education.classroom.bean.channel.ChannelDelta;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.classroom.strategy.ChannelStrategy;
 import io.agora.rtc.Constants;
@@ -57,17 +58,17 @@ public class OneToOneClassContext extends ClassContext {
     public void onLocalChanged(User local) {
         super.onLocalChanged(local);
         if (classEventListener instanceof OneToOneClassEventListener) {
-            runListener(() -> ((OneToOneClassEventListener) classEventListener).onLocalMediaChanged(local));
+            runListener("onLocalMediaChanged", () -> ((OneToOneClassEventListener) classEventListener).onLocalMediaChanged(local));
         }
     }
 
     @Override
-    public void onCoVideoUsersChanged(List<User> users) {
-        super.onCoVideoUsersChanged(users);
+    public void onCoVideoUsersChanged(List<User> users, ChannelDelta delta) {
+        super.onCoVideoUsersChanged(users, delta);
         if (classEventListener instanceof OneToOneClassEventListener) {
             for (User user : users) {
                 if (user.isTeacher()) {
-                    runListener(() -> ((OneToOneClassEventListener) classEventListener).onTeacherMediaChanged(user));
+                    runListener("onTeacherMediaChanged", () -> ((OneToOneClassEventListener) classEventListener).onTeacherMediaChanged(user));
                     return;
                 }
             }
@@ -7,6 +7,7 @@ import androidx.annotation.NonNull;
 import java.util.List;
 
 import io.agora.base.Callback;
+import io.agora.education.classroom.bean.channel.ChannelDelta;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.classroom.strategy.ChannelStrategy;
 import io.agora.rtc.Constants;
@@ -59,22 +60,15 @@ public class SmallClassContext extends ClassContext {
     public void onLocalChanged(User local) {
         super.onLocalChanged(local);
         if (classEventListener instanceof SmallClassEventListener) {
-            runListener(() -> ((SmallClassEventListener) classEventListener).onGrantWhiteboard(local.isBoardGrant()));
+            runListener("onGrantWhiteboard", () -> ((SmallClassEventListener) classEventListener).onGrantWhiteboard(local.isBoardGrant()));
         }
     }
 
     @Override
-    public void onCoVideoUsersChanged(List<User> users) {
-        super.onCoVideoUsersChanged(users);
-        for (User user : users) {
-            if (user.isTeacher()) {
-                // teacher need set high stream type
-                RtcManager.instance().setRemoteVideoStreamType(user.uid, Constants.VIDEO_STREAM_HIGH);
-                break;
-            }
-        }
+    public void onCoVideoUsersChanged(List<User> users, ChannelDelta delta) {
+        super.onCoVideoUsersChanged(users, delta);
         if (classEventListener instanceof SmallClassEventListener) {
-            runListener(() -> ((SmallClassEventListener) classEventListener).onUsersMediaChanged(users));
+            runListener("onUsersMediaChanged", () -> ((SmallClassEventListener) classEventListener).onUsersMediaChanged(users));
         }
     }
 
@@ -0,0 +1,71 @@
+package io.agora.education.classroom.widget.player;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.exoplayer2.ExoPlayerFactory;
+import com.google.android.exoplayer2.SimpleExoPlayer;
+import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
+import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
+import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
+
+/**
+ * Keeps one released replay player for the next replay, and one bandwidth estimate for all of them,
+ * so adaptive streams start at the rendition the network allows. Must be used on the main thread.
+ */
+public final class ExoPlayerPool {
+
+    private final DefaultBandwidthMeter bandwidthMeter = new DefaultBandwidthMeter();
+    private SimpleExoPlayer idlePlayer;
+
+    private static ExoPlayerPool instance;
+
+    private ExoPlayerPool() {
+    }
+
+    public static ExoPlayerPool instance() {
+        if (instance == null) {
+            synchronized (ExoPlayerPool.class) {
+                if (instance == null)
+                    instance = new ExoPlayerPool();
+            }
+        }
+        return instance;
+    }
+
+    public DefaultBandwidthMeter getBandwidthMeter() {
+        return bandwidthMeter;
+    }
+
+    public SimpleExoPlayer acquire(@NonNull Context context) {
+        if (idlePlayer != null) {
+            SimpleExoPlayer player = idlePlayer;
+            idlePlayer = null;
+            return player;
+        }
+        DefaultTrackSelector trackSelector = new DefaultTrackSelector(new AdaptiveTrackSelection.Factory(bandwidthMeter));
+        return ExoPlayerFactory.newSimpleInstance(context.getApplicationContext(), trackSelector);
+    }
+
+    public void recycle(@NonNull SimpleExoPlayer player) {
+        player.setPlayWhenReady(false);
+        player.stop(true);
+        if (idlePlayer == null) {
+            idlePlayer = player;
+        } else {
+            player.release();
+        }
+    }
+
+    /**
+     * release the idle player, the next replay builds a new one
+     */
+    public void trim() {
+        if (idlePlayer != null) {
+            idlePlayer.release();
+            idlePlayer = null;
+        }
+    }
+
+}
@@ -6,46 +6,38 @@ import android.webkit.URLUtil;
 
 import androidx.annotation.NonNull;
 
-import com.google.android.exoplayer2.ExoPlayer;
-import com.google.android.exoplayer2.ExoPlayerFactory;
 import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.source.ExtractorMediaSource;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.hls.HlsMediaSource;
-import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
-import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
-import com.google.android.exoplayer2.trackselection.TrackSelection;
-import com.google.android.exoplayer2.trackselection.TrackSelector;
 import com.google.android.exoplayer2.ui.PlayerView;
-import com.google.android.exoplayer2.upstream.BandwidthMeter;
 import com.google.android.exoplayer2.upstream.DataSource;
-import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
-import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
-import com.google.android.exoplayer2.util.Util;
 
-import io.agora.timeline.Timeline;
+import io.agora.timeline.Prefetchable;
+import io.agora.timeline.SyncTimeline;
 import io.agora.timeline.TimelineState;
 
-public class ExoVideoPlayer implements Timeline {
-    private ExoPlayer mPlayer;
+public class ExoVideoPlayer implements SyncTimeline, Prefetchable {
+    private static final long PREFETCH_DURATION = 5 * 1000;
+
+    private SimpleExoPlayer mPlayer;
+    private PlayerView playerView;
+    private String url;
 
     ExoVideoPlayer(@NonNull PlayerView playerView, String url) {
+        this.url = url;
         if (URLUtil.isNetworkUrl(url)) {
-            initVideoPlayer(playerView.getContext());
+            this.playerView = playerView;
+            mPlayer = ExoPlayerPool.instance().acquire(playerView.getContext());
             initVideoSource(playerView.getContext(), url);
             playerView.setPlayer(mPlayer);
         }
     }
 
-    private void initVideoPlayer(Context context) {
-        BandwidthMeter bandwidthMeter = new DefaultBandwidthMeter();
-        TrackSelection.Factory videoTrackSelectionFactory = new AdaptiveTrackSelection.Factory(bandwidthMeter);
-        TrackSelector trackSelector = new DefaultTrackSelector(videoTrackSelectionFactory);
-        mPlayer = ExoPlayerFactory.newSimpleInstance(context, trackSelector);
-    }
-
     private void initVideoSource(Context context, String url) {
-        DataSource.Factory dataSourceFactory = new DefaultDataSourceFactory(context, Util.getUserAgent(context, context.getPackageName()));
+        DataSource.Factory dataSourceFactory = VideoCache.instance().getDataSourceFactory(context,
+                ExoPlayerPool.instance().getBandwidthMeter());
         Uri uri = Uri.parse(url);
         MediaSource source;
         if (url.endsWith(".m3u8")) {
@@ -59,7 +51,9 @@ public class ExoVideoPlayer implements Timeline {
 
     public void release() {
         if (mPlayer != null) {
-            mPlayer.release();
+            playerView.setPlayer(null);
+            ExoPlayerPool.instance().recycle(mPlayer);
+            mPlayer = null;
         }
     }
 
@@ -83,6 +77,18 @@ public class ExoVideoPlayer implements Timeline {
         mPlayer.stop();
     }
 
+    @Override
+    public void prefetch(long positionMs) {
+        if (URLUtil.isNetworkUrl(url)) {
+            VideoCache.instance().prefetchAt(url, positionMs, PREFETCH_DURATION);
+        }
+    }
+
+    @Override
+    public long getCurrentPosition() {
+        return mPlayer.getCurrentPosition();
+    }
+
     @TimelineState
     @Override
     public int getState() {
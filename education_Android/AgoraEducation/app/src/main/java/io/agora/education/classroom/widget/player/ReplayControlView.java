@@ -73,6 +73,7 @@ public class ReplayControlView extends RelativeLayout implements ReplayEventList
     public void init(PlayerView videoView, String url, long startTime, long endTime) {
         timeline = new SimpleTimeline(startTime, endTime);
         timeline.setTimelineListener(this);
+        updateTickRate();
         mManager = new SimpleTimelineManager(timeline);
 
         videoPlayer = new ExoVideoPlayer(videoView, url);
@@ -82,6 +83,9 @@ public class ReplayControlView extends RelativeLayout implements ReplayEventList
     }
 
     public void release() {
+        if (mManager != null) {
+            mManager.release();
+        }
         if (videoPlayer != null) {
             videoPlayer.release();
         }
@@ -115,6 +119,7 @@ public class ReplayControlView extends RelativeLayout implements ReplayEventList
     @Override
     public void setVisibility(int visibility) {
         super.setVisibility(visibility);
+        updateTickRate();
         if (mManager != null && visibility == VISIBLE) {
             if (mManager.getState() == TimelineState.STATE_START
                     && !isTrackingTouch) {
@@ -124,6 +129,21 @@ public class ReplayControlView extends RelativeLayout implements ReplayEventList
         }
     }
 
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateTickRate();
+    }
+
+    /**
+     * the progress only needs a smooth refresh while the controls are on screen
+     */
+    private void updateTickRate() {
+        if (timeline != null) {
+            timeline.setBackground(getVisibility() != VISIBLE || getWindowVisibility() != VISIBLE);
+        }
+    }
+
     @OnClick({R.id.btn_play, R.id.btn_play_pause})
     public void onClick(View view) {
         switch (view.getId()) {
@@ -167,6 +187,9 @@ public class ReplayControlView extends RelativeLayout implements ReplayEventList
             float percent = (float) progress / seekBar.getMax();
             long position = (long) (timeline.getDuration() * percent);
             tv_current_time.setText(TimeUtil.stringForTimeHMS(position / 1000, "%02d:%02d:%02d"));
+            if (mManager != null) {
+                mManager.prefetch(position);
+            }
         }
     }
 
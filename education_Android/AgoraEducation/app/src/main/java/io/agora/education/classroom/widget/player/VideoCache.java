@@ -0,0 +1,328 @@
+package io.agora.education.classroom.widget.player;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
+import com.google.android.exoplayer2.upstream.TransferListener;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.UriUtil;
+import com.google.android.exoplayer2.util.Util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.agora.log.LogManager;
+
+/**
+ * Disk cache of replay videos shared by all players of the process, least recently used content is evicted first.
+ */
+public final class VideoCache {
+
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    /**
+     * progressive videos have no segment index, prefetch a fixed head instead
+     */
+    private static final long PREFETCH_BYTES = 2L * 1024 * 1024;
+    private static final Pattern BANDWIDTH = Pattern.compile("[:,]BANDWIDTH=(\\d+)");
+
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
+    private Context context;
+    private SimpleCache cache;
+    private ExecutorService executor;
+    private final Set<String> prefetched = Collections.synchronizedSet(new HashSet<>());
+    private final AtomicInteger seekGeneration = new AtomicInteger();
+    private final Map<Uri, Playlist> playlists = new HashMap<>();
+    /**
+     * segments fully cached, cleared by the evictor through {@link #evictionListener}
+     */
+    private final Set<Uri> cachedSegments = Collections.synchronizedSet(new HashSet<>());
+    private final Set<String> listenedKeys = new HashSet<>();
+
+    private static VideoCache instance;
+
+    private VideoCache() {
+    }
+
+    public static VideoCache instance() {
+        if (instance == null) {
+            synchronized (VideoCache.class) {
+                if (instance == null)
+                    instance = new VideoCache();
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void init(@NonNull Context context, long maxBytes) {
+        if (cache != null) return;
+        this.context = context.getApplicationContext();
+        cache = new SimpleCache(new File(this.context.getCacheDir(), "video"), new LeastRecentlyUsedCacheEvictor(maxBytes));
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "VideoCache"));
+    }
+
+    /**
+     * @return cache backed factory, or a plain network factory when the cache is not initialized
+     */
+    public DataSource.Factory getDataSourceFactory(@NonNull Context context) {
+        return getDataSourceFactory(context, null);
+    }
+
+    /**
+     * @param listener notified of network transfers only, e.g. a bandwidth meter
+     */
+    public DataSource.Factory getDataSourceFactory(@NonNull Context context, @Nullable TransferListener<? super DataSource> listener) {
+        DataSource.Factory upstream = new DefaultDataSourceFactory(context, Util.getUserAgent(context, context.getPackageName()), listener);
+        synchronized (this) {
+            if (cache == null) {
+                return upstream;
+            }
+            // without FLAG_BLOCK_ON_CACHE a span being written by the prefetcher is read from the network
+            // instead of waiting for it, a failing cache read falls back to the network too
+            return new CacheDataSourceFactory(cache, upstream, CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+        }
+    }
+
+    /**
+     * cache the first {@code durationMs} of the video in background, once per url
+     */
+    public void prefetch(String url, long durationMs) {
+        if (!prefetched.add(url)) return;
+        if (!prefetch(url, 0, durationMs, 0)) {
+            prefetched.remove(url);
+        }
+    }
+
+    /**
+     * cache the whole video in background for offline playback, it is evicted like any other content.
+     * All renditions of an adaptive stream are cached, the one selected offline is not known yet
+     */
+    public void download(String url) {
+        prefetched.add(url);
+        if (!prefetch(url, 0, Long.MAX_VALUE, 0)) {
+            prefetched.remove(url);
+        }
+    }
+
+    /**
+     * cache the hls segments covering [positionMs, positionMs + durationMs) in background,
+     * a newer seek prefetch cancels the pending one
+     */
+    public void prefetchAt(String url, long positionMs, long durationMs) {
+        if (!url.endsWith(".m3u8")) return;
+        prefetch(url, positionMs, durationMs, seekGeneration.incrementAndGet());
+    }
+
+    private boolean prefetch(String url, long positionMs, long durationMs, int generation) {
+        DataSource.Factory factory;
+        synchronized (this) {
+            if (cache == null) return false;
+            factory = getDataSourceFactory(context);
+        }
+        executor.execute(() -> {
+            Uri uri = Uri.parse(url);
+            try {
+                if (url.endsWith(".m3u8")) {
+                    long endMs = durationMs == Long.MAX_VALUE ? Long.MAX_VALUE : positionMs + durationMs;
+                    List<Uri> mediaPlaylists = new ArrayList<>();
+                    List<Variant> variants = getPlaylist(factory, uri).variants;
+                    if (variants.isEmpty()) {
+                        mediaPlaylists.add(uri);
+                    } else if (durationMs == Long.MAX_VALUE) {
+                        for (Variant variant : variants) {
+                            mediaPlaylists.add(variant.uri);
+                        }
+                    } else {
+                        mediaPlaylists.add(selectVariant(variants).uri);
+                    }
+                    for (Uri mediaPlaylist : mediaPlaylists) {
+                        for (Segment segment : getPlaylist(factory, mediaPlaylist).segments) {
+                            if (generation != 0 && generation != seekGeneration.get()) return;
+                            if (segment.startMs >= endMs) break;
+                            if (segment.startMs + segment.durationMs <= positionMs
+                                    || cachedSegments.contains(segment.uri)) continue;
+                            read(factory, new DataSpec(segment.uri), null);
+                            onCached(segment.uri);
+                        }
+                    }
+                } else {
+                    long length = durationMs == Long.MAX_VALUE ? C.LENGTH_UNSET : PREFETCH_BYTES;
+                    read(factory, new DataSpec(uri, 0, length, null), null);
+                }
+                log.d("prefetch %s at %d done", url, positionMs);
+            } catch (IOException | RuntimeException e) {
+                if (generation == 0) {
+                    prefetched.remove(url);
+                }
+                log.w("prefetch %s failed %s", url, e);
+            }
+        });
+        return true;
+    }
+
+    private static final class Segment {
+        final Uri uri;
+        final long startMs;
+        final long durationMs;
+
+        Segment(Uri uri, long startMs, long durationMs) {
+            this.uri = uri;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+        }
+    }
+
+    private static final class Variant {
+        final Uri uri;
+        final long bitrate;
+
+        Variant(Uri uri, long bitrate) {
+            this.uri = uri;
+            this.bitrate = bitrate;
+        }
+    }
+
+    /**
+     * a master playlist has variants only, a media playlist segments only
+     */
+    private static final class Playlist {
+        final List<Variant> variants = new ArrayList<>();
+        final List<Segment> segments = new ArrayList<>();
+    }
+
+    /**
+     * the variant {@link AdaptiveTrackSelection} starts with: the highest bitrate within the bandwidth
+     * estimate of the players, the lowest one if none fits
+     */
+    private static Variant selectVariant(List<Variant> variants) {
+        long estimate = ExoPlayerPool.instance().getBandwidthMeter().getBitrateEstimate();
+        long effectiveBitrate = estimate == BandwidthMeter.NO_ESTIMATE
+                ? AdaptiveTrackSelection.DEFAULT_MAX_INITIAL_BITRATE
+                : (long) (estimate * AdaptiveTrackSelection.DEFAULT_BANDWIDTH_FRACTION);
+        Variant best = null, lowest = null;
+        for (Variant variant : variants) {
+            if (variant.bitrate <= effectiveBitrate && (best == null || variant.bitrate > best.bitrate)) {
+                best = variant;
+            }
+            if (lowest == null || variant.bitrate < lowest.bitrate) {
+                lowest = variant;
+            }
+        }
+        return best != null ? best : lowest;
+    }
+
+    /**
+     * runs on the executor thread only
+     */
+    private Playlist getPlaylist(DataSource.Factory factory, Uri uri) throws IOException {
+        Playlist playlist = playlists.get(uri);
+        if (playlist != null) {
+            return playlist;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        read(factory, new DataSpec(uri), out);
+        String[] lines = out.toString("UTF-8").split("\n");
+        playlist = new Playlist();
+        long variantBitrate = -1;
+        long segmentDurationMs = 0, startMs = 0;
+        for (String line : lines) {
+            line = line.trim();
+            if (line.startsWith("#EXT-X-STREAM-INF")) {
+                variantBitrate = parseBandwidth(line);
+            } else if (line.startsWith("#EXTINF:")) {
+                int end = line.indexOf(',');
+                String duration = line.substring("#EXTINF:".length(), end > 0 ? end : line.length());
+                segmentDurationMs = (long) (Double.parseDouble(duration) * 1000);
+            } else if (!line.isEmpty() && !line.startsWith("#")) {
+                Uri child = UriUtil.resolveToUri(uri.toString(), line);
+                if (variantBitrate >= 0) {
+                    playlist.variants.add(new Variant(child, variantBitrate));
+                    variantBitrate = -1;
+                } else {
+                    playlist.segments.add(new Segment(child, startMs, segmentDurationMs));
+                    startMs += segmentDurationMs;
+                }
+            }
+        }
+        playlists.put(uri, playlist);
+        return playlist;
+    }
+
+    private static long parseBandwidth(String streamInf) {
+        Matcher matcher = BANDWIDTH.matcher(streamInf);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    /**
+     * remember a cached segment until the evictor removes it
+     */
+    private void onCached(Uri segment) {
+        cachedSegments.add(segment);
+        SimpleCache cache;
+        synchronized (this) {
+            cache = this.cache;
+        }
+        if (listenedKeys.add(segment.toString())) {
+            cache.addListener(segment.toString(), evictionListener);
+        }
+    }
+
+    private final Cache.Listener evictionListener = new Cache.Listener() {
+        @Override
+        public void onSpanAdded(Cache cache, CacheSpan span) {
+        }
+
+        @Override
+        public void onSpanRemoved(Cache cache, CacheSpan span) {
+            cachedSegments.remove(Uri.parse(span.key));
+        }
+
+        @Override
+        public void onSpanTouched(Cache cache, CacheSpan oldSpan, CacheSpan newSpan) {
+        }
+    };
+
+    private static void read(DataSource.Factory factory, DataSpec dataSpec, ByteArrayOutputStream out) throws IOException {
+        DataSource dataSource = factory.createDataSource();
+        byte[] buffer = new byte[16 * 1024];
+        try {
+            dataSource.open(dataSpec);
+            int length;
+            while ((length = dataSource.read(buffer, 0, buffer.length)) != C.RESULT_END_OF_INPUT) {
+                if (out != null) {
+                    out.write(buffer, 0, length);
+                }
+            }
+        } finally {
+            dataSource.close();
+        }
+    }
+
+}
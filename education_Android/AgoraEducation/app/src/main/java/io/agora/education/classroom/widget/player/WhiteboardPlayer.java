@@ -1,10 +1,13 @@
 package io.agora.education.classroom.widget.player;
 
-import io.agora.timeline.Timeline;
+import com.herewhite.sdk.domain.PlayerTimeInfo;
+
+import io.agora.timeline.Prefetchable;
+import io.agora.timeline.SyncTimeline;
 import io.agora.timeline.TimelineState;
 import io.agora.whiteboard.netless.manager.ReplayManager;
 
-public class WhiteboardPlayer implements Timeline {
+public class WhiteboardPlayer implements SyncTimeline, Prefetchable {
     private ReplayManager mPlayer;
 
     WhiteboardPlayer(ReplayManager player) {
@@ -31,6 +34,20 @@ public class WhiteboardPlayer implements Timeline {
         mPlayer.stop();
     }
 
+    @Override
+    public void prefetch(long positionMs) {
+        // the board loads the slices of the schedule time it is at, only move it while nothing is playing
+        if (getState() == TimelineState.STATE_PAUSE) {
+            mPlayer.seekToScheduleTime(positionMs);
+        }
+    }
+
+    @Override
+    public long getCurrentPosition() {
+        PlayerTimeInfo info = mPlayer.getPlayerTimeInfo();
+        return info != null ? info.getScheduleTime() : -1;
+    }
+
     @TimelineState
     @Override
     public int getState() {
@@ -11,10 +11,10 @@ public class UUIDUtil {
     private static final String KEY_SP = "uuid";
 
     public static String getUUID() {
-        String uuid = PreferenceManager.get(KEY_SP, "");
+        String uuid = PreferenceManager.getString(KEY_SP, "");
         if (TextUtils.isEmpty(uuid)) {
             uuid = UUID.randomUUID().toString();
-            PreferenceManager.put(KEY_SP, uuid);
+            PreferenceManager.putString(KEY_SP, uuid);
         }
         return uuid;
     }
@@ -40,11 +40,11 @@ public class EyeProtection {
     }
 
     public static boolean isNeedShow() {
-        return PreferenceManager.get(KEY_SP, false);
+        return PreferenceManager.getBoolean(KEY_SP, false);
     }
 
     public static void setNeedShow(boolean isNeed) {
-        PreferenceManager.put(KEY_SP, isNeed);
+        PreferenceManager.putBoolean(KEY_SP, isNeed);
     }
 
 }
@@ -41,17 +41,20 @@ public class PolicyDialog extends ConfirmDialog implements ConfirmDialog.DialogC
 
     @Override
     public void show(@NonNull FragmentManager manager, @Nullable String tag) {
-        if (isNeedShow()) {
-            super.show(manager, tag);
-        }
+        // the choice is not known before the preferences are loaded
+        PreferenceManager.whenLoaded(() -> {
+            if (isNeedShow() && !manager.isDestroyed() && !manager.isStateSaved()) {
+                super.show(manager, tag);
+            }
+        });
     }
 
     private boolean isNeedShow() {
-        return PreferenceManager.get(KEY_SP, true);
+        return PreferenceManager.getBoolean(KEY_SP, true);
     }
 
     private void setNeedShow(boolean isNeed) {
-        PreferenceManager.put(KEY_SP, isNeed);
+        PreferenceManager.putBoolean(KEY_SP, isNeed);
     }
 
     @Override
@@ -13,10 +13,14 @@ import android.widget.EditText;
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 
+import java.io.IOException;
+import java.util.Map;
+
 import butterknife.BindView;
 import butterknife.OnClick;
 import butterknife.OnTouch;
 import io.agora.base.Callback;
+import io.agora.base.StartupPipeline;
 import io.agora.base.ToastManager;
 import io.agora.base.network.RetrofitManager;
 import io.agora.education.base.BaseActivity;
@@ -30,20 +34,29 @@ import io.agora.education.classroom.bean.channel.Room;
 import io.agora.education.classroom.bean.channel.User;
 import io.agora.education.service.CommonService;
 import io.agora.education.service.RoomService;
+import io.agora.education.service.bean.ResponseBody;
 import io.agora.education.service.bean.request.RoomEntryReq;
 import io.agora.education.util.AppUtil;
 import io.agora.education.util.CryptoUtil;
 import io.agora.education.util.UUIDUtil;
 import io.agora.education.widget.ConfirmDialog;
 import io.agora.education.widget.PolicyDialog;
+import io.agora.log.LogManager;
 import io.agora.sdk.manager.RtcManager;
 import io.agora.sdk.manager.RtmManager;
+import retrofit2.Call;
 
 public class MainActivity extends BaseActivity {
 
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
     private final int REQUEST_CODE_DOWNLOAD = 100;
     private final int REQUEST_CODE_RTC = 101;
 
+    private static final String TASK_RTC = "rtc";
+    private static final String TASK_RTM = "rtm";
+    private static final String TASK_LANGUAGE = "language";
+
     @BindView(R.id.et_room_name)
     protected EditText et_room_name;
     @BindView(R.id.et_your_name)
@@ -74,14 +87,19 @@ public class MainActivity extends BaseActivity {
 
         String appId = getString(R.string.agora_app_id);
         EduApplication.setAppId(appId);
-        RtcManager.instance().init(getApplicationContext(), appId);
-        RtmManager.instance().init(getApplicationContext(), appId);
-
         RetrofitManager.instance().addHeader("Authorization", CryptoUtil.getAuth(getString(R.string.agora_auth)));
-        commonService = RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, CommonService.class);
-        roomService = RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RoomService.class);
-        checkVersion();
-        getConfig();
+
+        StartupPipeline startup = EduApplication.getStartup();
+        startup.add(TASK_RTC, () -> RtcManager.instance().init(getApplicationContext(), appId))
+                .add(TASK_RTM, () -> RtmManager.instance().init(getApplicationContext(), appId))
+                .add(TASK_LANGUAGE, MainActivity::fetchLanguage, EduApplication.TASK_RETROFIT);
+        startup.whenDone(() -> {
+            if (isDestroyed()) return;
+            commonService = RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, CommonService.class);
+            roomService = RetrofitManager.instance().getService(BuildConfig.API_BASE_URL, RoomService.class);
+            checkVersion();
+        }, EduApplication.TASK_RETROFIT);
+        startup.whenDone(() -> log.i("startup %s", startup.report()));
     }
 
     @Override
@@ -134,6 +152,20 @@ public class MainActivity extends BaseActivity {
         commonService.language().enqueue(new BaseCallback<>(EduApplication::setMultiLanguage));
     }
 
+    /**
+     * blocking version of {@link #getConfig()} for the startup pipeline
+     */
+    private static void fetchLanguage() {
+        Call<ResponseBody<Map<String, Map<Integer, String>>>> call = RetrofitManager.instance()
+                .getService(BuildConfig.API_BASE_URL, CommonService.class).language();
+        BaseCallback<Map<String, Map<Integer, String>>> callback = new BaseCallback<>(EduApplication::setMultiLanguage);
+        try {
+            callback.onResponse(call, call.execute());
+        } catch (IOException e) {
+            callback.onFailure(call, e);
+        }
+    }
+
     private void joinRoom() {
         String roomNameStr = et_room_name.getText().toString();
         if (TextUtils.isEmpty(roomNameStr)) {
@@ -153,13 +185,17 @@ public class MainActivity extends BaseActivity {
             return;
         }
 
-        if (EduApplication.getMultiLanguage() == null) {
-            ToastManager.showShort(R.string.configuration_load_failed);
-            getConfig();
-            return;
-        }
-
-        roomEntry(yourNameStr, roomNameStr, getClassType(roomTypeStr));
+        int classType = getClassType(roomTypeStr);
+        // sdk, configuration and the stored uuid may still be loading right after launch
+        EduApplication.getStartup().whenDone(() -> {
+            if (isDestroyed()) return;
+            if (EduApplication.getMultiLanguage() == null) {
+                ToastManager.showShort(R.string.configuration_load_failed);
+                getConfig();
+                return;
+            }
+            roomEntry(yourNameStr, roomNameStr, classType);
+        }, TASK_RTC, TASK_RTM, TASK_LANGUAGE, EduApplication.TASK_RETROFIT, EduApplication.TASK_PREFERENCES);
     }
 
     @Room.Type
@@ -9,6 +9,7 @@ import android.widget.Switch;
 import butterknife.BindView;
 import butterknife.OnCheckedChanged;
 import butterknife.OnClick;
+import io.agora.base.PreferenceManager;
 import io.agora.education.base.BaseActivity;
 import io.agora.education.widget.EyeProtection;
 
@@ -28,7 +29,7 @@ public class SettingActivity extends BaseActivity {
 
     @Override
     protected void initView() {
-        switch_eye_care.setChecked(EyeProtection.isNeedShow());
+        PreferenceManager.whenLoaded(() -> switch_eye_care.setChecked(EyeProtection.isNeedShow()));
     }
 
     @OnClick({R.id.iv_back, R.id.layout_policy})
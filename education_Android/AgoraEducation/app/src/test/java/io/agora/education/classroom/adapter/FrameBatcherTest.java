@@ -0,0 +1,138 @@
+package io.agora.education.classroom.adapter;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameBatcherTest {
+
+    /**
+     * runs what was queued only when asked to
+     */
+    private static class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static class ManualFrames implements FrameBatcher.Frames {
+        final List<Runnable> posted = new ArrayList<>();
+        int count;
+
+        @Override
+        public void post(Runnable frame) {
+            posted.add(frame);
+        }
+
+        @Override
+        public void remove(Runnable frame) {
+            posted.remove(frame);
+        }
+
+        void next() {
+            List<Runnable> frames = new ArrayList<>(posted);
+            posted.clear();
+            count++;
+            for (Runnable frame : frames) {
+                frame.run();
+            }
+        }
+    }
+
+    private final ManualExecutor background = new ManualExecutor();
+    private final ManualExecutor main = new ManualExecutor();
+    private final ManualFrames frames = new ManualFrames();
+    private final List<List<Integer>> batches = new ArrayList<>();
+    private final FrameBatcher<Integer> batcher = new FrameBatcher<>(background, main, frames, batches::add);
+
+    private void ready() {
+        background.runAll();
+        main.runAll();
+    }
+
+    @Test
+    public void burstInsertedOncePerFrame() {
+        for (int i = 0; i < 100; i++) {
+            batcher.post(i, null);
+        }
+        assertEquals(100, batcher.getPendingCount());
+        ready();
+        // one frame callback for the whole burst
+        assertEquals(1, frames.posted.size());
+        frames.next();
+        assertEquals(1, batches.size());
+        assertEquals(100, batches.get(0).size());
+        assertEquals(99, (int) batches.get(0).get(99));
+        assertEquals(0, batcher.getPendingCount());
+    }
+
+    @Test
+    public void itemsReadyAfterTheFrameGoToTheNextOne() {
+        batcher.post(0, null);
+        batcher.post(1, null);
+        ready();
+        batcher.post(2, null);
+        frames.next();
+        assertEquals(1, batcher.getPendingCount());
+        ready();
+        batcher.post(3, null);
+        frames.next();
+        // nothing scheduled without items
+        frames.next();
+        assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2)), batches);
+        assertEquals(1, batcher.getPendingCount());
+        ready();
+        frames.next();
+        assertEquals(Arrays.asList(3), batches.get(2));
+    }
+
+    @Test
+    public void preparedInBackgroundInOrder() {
+        List<Integer> prepared = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int item = i;
+            batcher.post(item, i == 1 ? null : () -> prepared.add(item));
+        }
+        assertTrue(prepared.isEmpty());
+        background.runAll();
+        assertEquals(Arrays.asList(0, 2), prepared);
+        assertTrue(frames.posted.isEmpty());
+        main.runAll();
+        frames.next();
+        assertEquals(Arrays.asList(0, 1, 2), batches.get(0));
+    }
+
+    @Test
+    public void releaseDropsLateItems() {
+        batcher.post(0, null);
+        ready();
+        batcher.post(1, null);
+        background.runAll();
+        batcher.release();
+        main.runAll();
+        batcher.post(2, null);
+        assertTrue(frames.posted.isEmpty());
+        assertTrue(background.tasks.isEmpty());
+        frames.next();
+        assertTrue(batches.isEmpty());
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.agora.education.classroom.bean;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import io.agora.education.classroom.bean.msg.ChannelMsg;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decoding the RTM channel messages as before (a new reflective Gson per call and a second pass for the
+ * payload) against the shared Gson with the hand-written adapters. Prints ns per message.
+ */
+public class JsonAdaptersBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ROUNDS = 5_000;
+
+    private interface Decoder {
+        Object decode(String json);
+    }
+
+    private static String[] corpus() {
+        ChannelMsg[] msgs = JsonAdaptersTest.channelMsgs();
+        String[] corpus = new String[msgs.length];
+        for (int i = 0; i < msgs.length; i++) {
+            corpus[i] = new Gson().toJson(msgs[i]);
+        }
+        return corpus;
+    }
+
+    private static long measure(String name, String[] corpus, Decoder decoder) {
+        for (int i = 0; i < WARMUP; i++) {
+            decoder.decode(corpus[i % corpus.length]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            decoder.decode(corpus[i % corpus.length]);
+        }
+        long nanos = (System.nanoTime() - start) / ROUNDS;
+        System.out.println(name + ": " + nanos + " ns/msg");
+        return nanos;
+    }
+
+    @Test
+    public void decodeChannelMsgs() {
+        String[] corpus = corpus();
+        long before = measure("new reflective Gson per call", corpus, json -> {
+            ChannelMsg msg = new Gson().fromJson(json, ChannelMsg.class);
+            return new Gson().fromJson(new Gson().toJson(msg.data), ChannelMsg.getDataType(msg.cmd));
+        });
+        Gson gson = new Gson();
+        measure("shared reflective Gson", corpus, json -> {
+            ChannelMsg msg = gson.fromJson(json, ChannelMsg.class);
+            return gson.fromJson(gson.toJson(msg.data), ChannelMsg.getDataType(msg.cmd));
+        });
+        long after = measure("shared Gson with adapters", corpus, json -> {
+            ChannelMsg msg = JsonBean.fromJson(json, ChannelMsg.class);
+            return msg.getMsg(ChannelMsg.getDataType(msg.cmd));
+        });
+        assertTrue(after < before);
+    }
+
+}
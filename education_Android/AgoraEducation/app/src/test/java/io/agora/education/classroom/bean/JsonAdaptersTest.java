@@ -0,0 +1,180 @@
+package io.agora.education.classroom.bean;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import io.agora.education.classroom.bean.channel.Room;
+import io.agora.education.classroom.bean.channel.User;
+import io.agora.education.classroom.bean.msg.ChannelMsg;
+import io.agora.education.classroom.bean.msg.PeerMsg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The hand-written adapters must read and write the same JSON as the reflective Gson they replace.
+ */
+public class JsonAdaptersTest {
+
+    private final Gson reflective = new Gson();
+    private final Gson adapters = JsonBean.getGson();
+
+    static User user(int uid, String name) {
+        User user = new User();
+        user.userId = "u" + uid;
+        user.userName = name;
+        user.role = User.Role.STUDENT;
+        user.enableChat = User.Chat.ENABLE;
+        user.enableVideo = User.Video.DISABLE;
+        user.enableAudio = User.Audio.ENABLE;
+        user.uid = uid;
+        user.screenId = uid + 1;
+        user.rtcToken = "rtc" + uid;
+        user.rtmToken = "rtm" + uid;
+        user.grantBoard = User.Board.GRANT;
+        user.coVideo = User.CoVideo.DISABLE;
+        return user;
+    }
+
+    static Room room() {
+        Room room = new Room();
+        room.roomId = "r1";
+        room.roomName = "math \"101\"";
+        room.channelName = "channel";
+        room.type = Room.Type.SMALL;
+        room.courseState = Room.State.BEGIN;
+        room.startTime = 1_600_000_000_000L;
+        room.muteAllChat = Room.AllChat.DISABLE;
+        room.isRecording = 1;
+        room.recordId = "rec";
+        room.recordingTime = 1_600_000_001_000L;
+        room.lockBoard = Room.Board.LOCK;
+        room.onlineUsers = 3;
+        room.coVideoUsers = new ArrayList<>(Arrays.asList(user(1, "teacher"), user(2, "\u5b66\u751f")));
+        return room;
+    }
+
+    static ChannelMsg channelMsg(int cmd, Object data) {
+        ChannelMsg msg = new ChannelMsg();
+        msg.cmd = cmd;
+        msg.data = data;
+        return msg;
+    }
+
+    static ChannelMsg[] channelMsgs() {
+        ChannelMsg.ChatMsg chat = new ChannelMsg.ChatMsg();
+        chat.type = ChannelMsg.ChatMsg.Type.TEXT;
+        chat.userId = "u1";
+        chat.userName = "teacher";
+        chat.message = "hello\nworld";
+
+        ChannelMsg.AccessMsg access = new ChannelMsg.AccessMsg();
+        access.total = 2;
+        access.list = new ArrayList<>();
+        ChannelMsg.AccessMsg.AccessState state = new ChannelMsg.AccessMsg.AccessState();
+        state.userId = "u2";
+        state.userName = "student";
+        state.role = User.Role.STUDENT;
+        state.state = ChannelMsg.AccessMsg.State.JOIN;
+        access.list.add(state);
+
+        ChannelMsg.RoomMsg roomMsg = new ChannelMsg.RoomMsg();
+        roomMsg.courseState = Room.State.BEGIN;
+        roomMsg.startTime = 1_600_000_000_000L;
+        roomMsg.muteAllChat = Room.AllChat.DISABLE;
+        roomMsg.lockBoard = Room.Board.LOCK;
+
+        ChannelMsg.CoVideoUserMsg users = new ChannelMsg.CoVideoUserMsg();
+        users.add(user(1, "teacher"));
+        users.add(user(2, "student"));
+
+        ChannelMsg.ReplayMsg replay = new ChannelMsg.ReplayMsg();
+        replay.type = ChannelMsg.ChatMsg.Type.TEXT;
+        replay.userId = "u1";
+        replay.roomId = "r1";
+        replay.recordId = "rec";
+
+        return new ChannelMsg[]{
+                channelMsg(ChannelMsg.Cmd.CHAT, chat),
+                channelMsg(ChannelMsg.Cmd.ACCESS, access),
+                channelMsg(ChannelMsg.Cmd.ROOM, roomMsg),
+                channelMsg(ChannelMsg.Cmd.USER, users),
+                channelMsg(ChannelMsg.Cmd.REPLAY, replay)
+        };
+    }
+
+    static PeerMsg peerMsg() {
+        PeerMsg.CoVideoMsg coVideo = new PeerMsg.CoVideoMsg();
+        coVideo.type = PeerMsg.CoVideoMsg.Type.ACCEPT;
+        coVideo.userId = "u1";
+        coVideo.userName = "teacher";
+        PeerMsg msg = new PeerMsg();
+        msg.cmd = PeerMsg.Cmd.CO_VIDEO;
+        msg.data = coVideo;
+        return msg;
+    }
+
+    private JsonElement tree(String json) {
+        return reflective.fromJson(json, JsonElement.class);
+    }
+
+    /**
+     * written the same, and what the reflective Gson wrote reads back to the same JSON
+     */
+    private void assertSameJson(Object bean) {
+        String expected = reflective.toJson(bean);
+        assertEquals(tree(expected), tree(adapters.toJson(bean)));
+        Object decoded = adapters.fromJson(expected, bean.getClass());
+        assertEquals(tree(expected), tree(reflective.toJson(decoded)));
+    }
+
+    @Test
+    public void userRoundTrip() {
+        assertSameJson(user(7, "name"));
+        User empty = new User();
+        assertSameJson(empty);
+        assertEquals(empty, adapters.fromJson(reflective.toJson(empty), User.class));
+    }
+
+    @Test
+    public void roomRoundTrip() {
+        assertSameJson(room());
+        assertEquals(room(), adapters.fromJson(reflective.toJson(room()), Room.class));
+        assertSameJson(new Room());
+    }
+
+    @Test
+    public void channelMsgRoundTrip() {
+        for (ChannelMsg msg : channelMsgs()) {
+            assertSameJson(msg);
+            assertSameJson(msg.data);
+            // the payload is decoded to its class rather than a map
+            assertEquals(msg.data.getClass(), adapters.fromJson(reflective.toJson(msg), ChannelMsg.class).data.getClass());
+        }
+    }
+
+    @Test
+    public void peerMsgRoundTrip() {
+        assertSameJson(peerMsg());
+        assertEquals(PeerMsg.CoVideoMsg.class, adapters.fromJson(reflective.toJson(peerMsg()), PeerMsg.class).data.getClass());
+    }
+
+    @Test
+    public void nullsAndUnknownFields() {
+        User user = adapters.fromJson("{\"userId\":null,\"uid\":null,\"extra\":{\"a\":[1,2]},\"role\":1}", User.class);
+        assertNull(user.userId);
+        assertEquals(0, user.uid);
+        assertEquals(User.Role.TEACHER, user.role);
+        // missing fields keep the constructor defaults as with reflection
+        assertEquals(User.CoVideo.ENABLE, user.coVideo);
+        assertEquals("replay recording", adapters.fromJson("{}", ChannelMsg.ReplayMsg.class).message);
+        assertNull(adapters.fromJson("{\"coVideoUsers\":null}", Room.class).coVideoUsers);
+        assertNull(adapters.fromJson("null", Room.class));
+    }
+
+}
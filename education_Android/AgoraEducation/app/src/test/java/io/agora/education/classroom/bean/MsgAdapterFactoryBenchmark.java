@@ -0,0 +1,57 @@
+package io.agora.education.classroom.bean;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import io.agora.education.classroom.bean.msg.ChannelMsg;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decoding the payload of a channel message in the envelope pass, against decoding the envelope to a
+ * map first and converting it to the payload class afterwards. Prints ns per message.
+ */
+public class MsgAdapterFactoryBenchmark {
+
+    private static final int WARMUP = 5_000;
+    private static final int ROUNDS = 20_000;
+
+    private interface Decoder {
+        Object decode(String json);
+    }
+
+    private static long measure(String name, String[] corpus, Decoder decoder) {
+        for (int i = 0; i < WARMUP; i++) {
+            decoder.decode(corpus[i % corpus.length]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            decoder.decode(corpus[i % corpus.length]);
+        }
+        long nanos = (System.nanoTime() - start) / ROUNDS;
+        System.out.println(name + ": " + nanos + " ns/msg");
+        return nanos;
+    }
+
+    @Test
+    public void decodePayloads() {
+        ChannelMsg[] msgs = JsonAdaptersTest.channelMsgs();
+        String[] cmdFirst = new String[msgs.length];
+        String[] dataFirst = new String[msgs.length];
+        for (int i = 0; i < msgs.length; i++) {
+            cmdFirst[i] = new Gson().toJson(msgs[i]);
+            dataFirst[i] = MsgAdapterFactoryTest.dataFirst(msgs[i].cmd, msgs[i].data);
+        }
+        Gson gson = JsonBean.getGson();
+        Gson envelope = new Gson();
+        long twoPass = measure("map then payload", cmdFirst, json -> {
+            ChannelMsg msg = envelope.fromJson(json, ChannelMsg.class);
+            return gson.fromJson(gson.toJsonTree(msg.data), ChannelMsg.getDataType(msg.cmd));
+        });
+        long onePass = measure("one pass, cmd first", cmdFirst, json -> gson.fromJson(json, ChannelMsg.class).data);
+        measure("one pass, data first", dataFirst, json -> gson.fromJson(json, ChannelMsg.class).data);
+        assertTrue(onePass < twoPass);
+    }
+
+}
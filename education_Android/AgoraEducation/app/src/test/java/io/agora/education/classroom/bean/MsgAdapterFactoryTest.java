@@ -0,0 +1,71 @@
+package io.agora.education.classroom.bean;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import io.agora.education.classroom.bean.msg.ChannelMsg;
+import io.agora.education.classroom.bean.msg.PeerMsg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MsgAdapterFactoryTest {
+
+    private final Gson reflective = new Gson();
+    private final Gson adapters = JsonBean.getGson();
+
+    /**
+     * the envelope with {@code data} written before {@code cmd}, as some senders do
+     */
+    static String dataFirst(int cmd, Object data) {
+        return "{\"data\":" + new Gson().toJson(data) + ",\"cmd\":" + cmd + "}";
+    }
+
+    @Test
+    public void corpusInBothFieldOrders() {
+        for (ChannelMsg expected : JsonAdaptersTest.channelMsgs()) {
+            String[] corpus = {reflective.toJson(expected), dataFirst(expected.cmd, expected.data)};
+            for (String json : corpus) {
+                ChannelMsg msg = adapters.fromJson(json, ChannelMsg.class);
+                assertEquals(json, expected.cmd, msg.cmd);
+                assertEquals(json, ChannelMsg.getDataType(msg.cmd), msg.data.getClass());
+                assertEquals(json, reflective.toJsonTree(expected), reflective.toJsonTree(msg));
+            }
+        }
+        PeerMsg expected = JsonAdaptersTest.peerMsg();
+        PeerMsg msg = adapters.fromJson(dataFirst(expected.cmd, expected.data), PeerMsg.class);
+        assertEquals(PeerMsg.CoVideoMsg.class, msg.data.getClass());
+        assertEquals(reflective.toJsonTree(expected), reflective.toJsonTree(msg));
+    }
+
+    @Test
+    public void unknownCmd() {
+        String[] corpus = {
+                "{\"cmd\":99,\"data\":{\"message\":\"hi\",\"extra\":[1,{\"a\":null}]}}",
+                "{\"data\":{\"message\":\"hi\",\"extra\":[1,{\"a\":null}]},\"cmd\":99}",
+                "{\"data\":{\"message\":\"hi\",\"extra\":[1,{\"a\":null}]}}"
+        };
+        for (String json : corpus) {
+            ChannelMsg msg = adapters.fromJson(json, ChannelMsg.class);
+            // kept generic as with reflection, still readable once the caller picks a class
+            assertTrue(json, msg.data instanceof Map);
+            assertEquals(json, "hi", msg.getMsg(ChannelMsg.ChatMsg.class).message);
+            assertEquals(json, reflective.fromJson(json, ChannelMsg.class).data, msg.data);
+        }
+        assertEquals(99, adapters.fromJson(corpus[0], ChannelMsg.class).cmd);
+        assertEquals(0, adapters.fromJson(corpus[2], ChannelMsg.class).cmd);
+    }
+
+    @Test
+    public void missingOrNullData() {
+        assertNull(adapters.fromJson("{\"cmd\":1}", ChannelMsg.class).data);
+        assertNull(adapters.fromJson("{\"data\":null,\"cmd\":1}", ChannelMsg.class).data);
+        assertNull(adapters.fromJson("{\"cmd\":1,\"data\":null}", PeerMsg.class).data);
+        assertEquals(ChannelMsg.Cmd.ROOM, adapters.fromJson("{\"cmd\":3,\"other\":[]}", ChannelMsg.class).cmd);
+    }
+
+}
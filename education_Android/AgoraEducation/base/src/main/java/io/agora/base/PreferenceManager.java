@@ -2,47 +2,207 @@ package io.agora.base;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Preferences served from an in-memory snapshot, call {@link #preload()} off the main thread at startup
+ * so reads do not wait for the disk. Reads from the UI go through {@link #whenLoaded(Runnable)}: a read
+ * made before the load finished waits for it, answering with defaults would let callers overwrite stored
+ * values. Writes update the snapshot at once and reach the disk in one transaction per frame, call
+ * {@link #flush()} when the app goes to background.
+ */
 public class PreferenceManager {
 
-    private static SharedPreferences sp;
+    private static final Object REMOVED = new Object();
+
+    private static Context context;
+    private static volatile SharedPreferences sp;
+    private static final Map<String, Object> snapshot = new ConcurrentHashMap<>();
+    private static final Map<String, Object> pending = new LinkedHashMap<>();
+    private static final List<Runnable> loadedCallbacks = new ArrayList<>();
+    private static boolean scheduled;
+    private static Handler handler;
 
     public static void init(Context context) {
-        if (sp == null) {
-            sp = androidx.preference.PreferenceManager.getDefaultSharedPreferences(context.getApplicationContext());
+        PreferenceManager.context = context.getApplicationContext();
+        handler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * load the preferences into memory, blocks on disk I/O
+     */
+    public static void preload() {
+        if (sp != null) return;
+        synchronized (snapshot) {
+            if (sp != null) return;
+            SharedPreferences preferences = androidx.preference.PreferenceManager.getDefaultSharedPreferences(context);
+            Map<String, ?> all = preferences.getAll();
+            synchronized (pending) {
+                for (Map.Entry<String, ?> entry : all.entrySet()) {
+                    // values written before the load completed win
+                    if (entry.getValue() != null && !pending.containsKey(entry.getKey())) {
+                        snapshot.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            sp = preferences;
+            for (Runnable callback : loadedCallbacks) {
+                handler.post(callback);
+            }
+            loadedCallbacks.clear();
+        }
+        // writes made while loading were left for now
+        flush();
+    }
+
+    public static boolean isLoaded() {
+        return sp != null;
+    }
+
+    /**
+     * run on the main thread once {@link #preload()} finished, at once when called there after it
+     */
+    public static void whenLoaded(Runnable callback) {
+        synchronized (snapshot) {
+            if (sp == null) {
+                loadedCallbacks.add(callback);
+                return;
+            }
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            callback.run();
+        } else {
+            handler.post(callback);
         }
     }
 
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        Object value = read(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        Object value = read(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        Object value = read(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public static float getFloat(String key, float defaultValue) {
+        Object value = read(key);
+        return value instanceof Float ? (Float) value : defaultValue;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        Object value = read(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public static void putBoolean(String key, boolean value) {
+        write(key, value);
+    }
+
+    public static void putInt(String key, int value) {
+        write(key, value);
+    }
+
+    public static void putLong(String key, long value) {
+        write(key, value);
+    }
+
+    public static void putFloat(String key, float value) {
+        write(key, value);
+    }
+
+    public static void putString(String key, String value) {
+        write(key, value == null ? REMOVED : value);
+    }
+
+    public static void remove(String key) {
+        write(key, REMOVED);
+    }
+
     public static void put(String key, Object value) {
-        if (value instanceof Boolean) {
-            sp.edit().putBoolean(key, (Boolean) value).apply();
-        } else if (value instanceof Integer) {
-            sp.edit().putInt(key, (Integer) value).apply();
-        } else if (value instanceof String) {
-            sp.edit().putString(key, (String) value).apply();
-        } else if (value instanceof Float) {
-            sp.edit().putFloat(key, (Float) value).apply();
-        } else if (value instanceof Long) {
-            sp.edit().putLong(key, (Long) value).apply();
+        if (value instanceof Boolean || value instanceof Integer || value instanceof String
+                || value instanceof Float || value instanceof Long) {
+            write(key, value);
         }
     }
 
+    @SuppressWarnings("unchecked")
     public static <T> T get(String key, T defaultValue) {
-        Object result;
-        if (defaultValue instanceof Boolean) {
-            result = sp.getBoolean(key, (Boolean) defaultValue);
-        } else if (defaultValue instanceof Integer) {
-            result = sp.getInt(key, (Integer) defaultValue);
-        } else if (defaultValue instanceof String) {
-            result = sp.getString(key, (String) defaultValue);
-        } else if (defaultValue instanceof Float) {
-            result = sp.getFloat(key, (Float) defaultValue);
-        } else if (defaultValue instanceof Long) {
-            result = sp.getLong(key, (Long) defaultValue);
-        } else {
+        if (!(defaultValue instanceof Boolean || defaultValue instanceof Integer || defaultValue instanceof String
+                || defaultValue instanceof Float || defaultValue instanceof Long)) {
             return null;
         }
-        return (T) result;
+        Object value = read(key);
+        return value != null && value.getClass() == defaultValue.getClass() ? (T) value : defaultValue;
+    }
+
+    /**
+     * write pending changes to disk now, or right after {@link #preload()} if it has not finished
+     */
+    public static void flush() {
+        Map<String, Object> changes;
+        synchronized (pending) {
+            if (sp == null) return;
+            scheduled = false;
+            if (pending.isEmpty()) return;
+            changes = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        SharedPreferences.Editor editor = sp.edit();
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            Object value = entry.getValue();
+            if (value == REMOVED) {
+                editor.remove(entry.getKey());
+            } else if (value instanceof Boolean) {
+                editor.putBoolean(entry.getKey(), (Boolean) value);
+            } else if (value instanceof Integer) {
+                editor.putInt(entry.getKey(), (Integer) value);
+            } else if (value instanceof String) {
+                editor.putString(entry.getKey(), (String) value);
+            } else if (value instanceof Float) {
+                editor.putFloat(entry.getKey(), (Float) value);
+            } else if (value instanceof Long) {
+                editor.putLong(entry.getKey(), (Long) value);
+            }
+        }
+        editor.apply();
+    }
+
+    private static Object read(String key) {
+        if (sp == null) {
+            // read before the startup preload finished and not deferred with whenLoaded, wait for it or load here
+            preload();
+        }
+        return snapshot.get(key);
+    }
+
+    private static void write(String key, Object value) {
+        synchronized (pending) {
+            if (value == REMOVED) {
+                snapshot.remove(key);
+            } else {
+                snapshot.put(key, value);
+            }
+            pending.put(key, value);
+            if (!scheduled) {
+                scheduled = true;
+                handler.post(() -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> flush()));
+            }
+        }
     }
 
 }
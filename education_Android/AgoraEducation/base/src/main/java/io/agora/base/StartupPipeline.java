@@ -0,0 +1,217 @@
+package io.agora.base;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs app initialization as a graph of named tasks on a background pool. A task starts as soon as
+ * the tasks it depends on are finished, failed ones included, and runs once per pipeline.
+ * Dependencies must be added first, so the graph can not have cycles.
+ */
+public class StartupPipeline {
+
+    private static final int POOL_SIZE = 3;
+
+    private final Executor background;
+    private final Executor main;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    public StartupPipeline() {
+        this(createPool(), new Executor() {
+            private final Handler handler = new Handler(Looper.getMainLooper());
+
+            @Override
+            public void execute(Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
+    StartupPipeline(Executor background, Executor main) {
+        this.background = background;
+        this.main = main;
+    }
+
+    private static Executor createPool() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> new Thread(r, "Startup-" + count.incrementAndGet()));
+        // nothing left to keep alive once started
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * add a task, ignored if a task with the same name was added before
+     */
+    public StartupPipeline add(String name, Runnable body, String... dependsOn) {
+        Task task;
+        synchronized (this) {
+            if (tasks.containsKey(name)) return this;
+            task = new Task(name, body);
+            for (String dependency : dependsOn) {
+                Task parent = tasks.get(dependency);
+                if (parent == null) {
+                    throw new IllegalArgumentException(name + " depends on unknown task " + dependency);
+                }
+                if (!parent.isFinished()) {
+                    parent.children.add(task);
+                    task.pending++;
+                }
+            }
+            tasks.put(name, task);
+            if (task.pending > 0) return this;
+        }
+        submit(task);
+        return this;
+    }
+
+    /**
+     * run on the main thread once the given tasks, or all tasks added so far, are finished
+     */
+    public void whenDone(Runnable callback, String... names) {
+        Waiter waiter = new Waiter(callback);
+        synchronized (this) {
+            if (names.length == 0) {
+                waiter.tasks.addAll(tasks.values());
+            } else {
+                for (String name : names) {
+                    Task task = tasks.get(name);
+                    if (task == null) {
+                        throw new IllegalArgumentException("unknown task " + name);
+                    }
+                    waiter.tasks.add(task);
+                }
+            }
+            if (!waiter.isReady()) {
+                waiters.add(waiter);
+                return;
+            }
+        }
+        main.execute(callback);
+    }
+
+    public synchronized boolean isFinished(String name) {
+        Task task = tasks.get(name);
+        return task != null && task.isFinished();
+    }
+
+    /**
+     * start offset and duration of every task in ms, for example
+     * {@code "total 412ms: preferences 0+8ms, rtc 1+236ms, language 30+380ms (failed: timeout)"}
+     */
+    public synchronized String report() {
+        StringBuilder builder = new StringBuilder();
+        long end = 0;
+        for (Task task : tasks.values()) {
+            builder.append(builder.length() == 0 ? "" : ", ").append(task.name);
+            if (!task.isFinished()) {
+                builder.append(task.startNanos == 0 ? " waiting" : " running");
+                continue;
+            }
+            builder.append(' ').append(millis(task.startNanos - startNanos))
+                    .append('+').append(millis(task.endNanos - task.startNanos)).append("ms");
+            if (task.error != null) {
+                builder.append(" (failed: ").append(task.error).append(')');
+            }
+            end = Math.max(end, task.endNanos - startNanos);
+        }
+        return String.format(Locale.US, "total %dms: %s", millis(end), builder);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private void submit(Task task) {
+        background.execute(() -> run(task));
+    }
+
+    private void run(Task task) {
+        task.startNanos = System.nanoTime();
+        Throwable error = null;
+        try {
+            task.body.run();
+        } catch (Throwable e) {
+            error = e;
+        }
+        List<Task> ready = new ArrayList<>();
+        List<Runnable> callbacks = new ArrayList<>();
+        synchronized (this) {
+            task.endNanos = System.nanoTime();
+            task.error = error;
+            task.finished = true;
+            for (Task child : task.children) {
+                if (--child.pending == 0) {
+                    ready.add(child);
+                }
+            }
+            task.children.clear();
+            Iterator<Waiter> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                if (waiter.isReady()) {
+                    iterator.remove();
+                    callbacks.add(waiter.callback);
+                }
+            }
+        }
+        for (Task child : ready) {
+            submit(child);
+        }
+        for (Runnable callback : callbacks) {
+            main.execute(callback);
+        }
+    }
+
+    private static class Task {
+        final String name;
+        final Runnable body;
+        final List<Task> children = new ArrayList<>();
+        int pending;
+        volatile long startNanos;
+        long endNanos;
+        boolean finished;
+        Throwable error;
+
+        Task(String name, Runnable body) {
+            this.name = name;
+            this.body = body;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+    }
+
+    private static class Waiter {
+        final Runnable callback;
+        final List<Task> tasks = new ArrayList<>();
+
+        Waiter(Runnable callback) {
+            this.callback = callback;
+        }
+
+        boolean isReady() {
+            for (Task task : tasks) {
+                if (!task.isFinished()) return false;
+            }
+            return true;
+        }
+    }
+
+}
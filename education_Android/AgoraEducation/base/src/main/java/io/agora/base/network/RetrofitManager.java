@@ -3,8 +3,8 @@ package io.agora.base.network;
 import androidx.annotation.NonNull;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
@@ -19,7 +19,10 @@ public class RetrofitManager {
     private static RetrofitManager instance;
 
     private OkHttpClient client;
-    private Map<String, String> headers = new HashMap<>();
+    private Map<String, String> headers = new ConcurrentHashMap<>();
+    private GsonConverterFactory converterFactory = GsonConverterFactory.create();
+    private ConcurrentHashMap<String, Retrofit> retrofits = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Object> services = new ConcurrentHashMap<>();
 
     private RetrofitManager() {
         OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
@@ -54,13 +57,46 @@ public class RetrofitManager {
         headers.put(key, value);
     }
 
+    /**
+     * services are cached per base url and interface, method metadata is validated on creation
+     */
     public <T> T getService(String baseUrl, Class<T> tClass) {
-        Retrofit retrofit = new Retrofit.Builder()
-                .client(client)
-                .baseUrl(baseUrl)
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-        return retrofit.create(tClass);
+        String key = baseUrl + '#' + tClass.getName();
+        Object service = services.get(key);
+        if (service == null) {
+            service = getRetrofit(baseUrl).create(tClass);
+            Object cached = services.putIfAbsent(key, service);
+            if (cached != null) {
+                service = cached;
+            }
+        }
+        return tClass.cast(service);
+    }
+
+    private Retrofit getRetrofit(String baseUrl) {
+        Retrofit retrofit = retrofits.get(baseUrl);
+        if (retrofit == null) {
+            retrofit = new Retrofit.Builder()
+                    .client(client)
+                    .baseUrl(baseUrl)
+                    .addConverterFactory(converterFactory)
+                    .validateEagerly(true)
+                    .build();
+            Retrofit cached = retrofits.putIfAbsent(baseUrl, retrofit);
+            if (cached != null) {
+                retrofit = cached;
+            }
+        }
+        return retrofit;
+    }
+
+    /**
+     * create and validate the given services, call it in background so the first call on them is not slow
+     */
+    public void warmUp(String baseUrl, Class<?>... tClasses) {
+        for (Class<?> tClass : tClasses) {
+            getService(baseUrl, tClass);
+        }
     }
 
     public static class Callback<T extends ResponseBody> implements retrofit2.Callback<T> {
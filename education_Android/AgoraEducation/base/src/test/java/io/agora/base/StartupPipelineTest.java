@@ -0,0 +1,80 @@
+package io.agora.base;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupPipelineTest {
+
+    @Test
+    public void dependenciesRunFirst() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        StartupPipeline pipeline = new StartupPipeline(pool, Runnable::run);
+
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline.add("slow", () -> {
+            await(release);
+            order.add("slow");
+        });
+        pipeline.add("fast", () -> order.add("fast"));
+        pipeline.add("child", () -> order.add("child"), "slow", "fast");
+        pipeline.whenDone(() -> {
+            order.add("done");
+            done.countDown();
+        });
+        assertFalse(pipeline.isFinished("child"));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf("child") > order.indexOf("slow"));
+        assertTrue(order.indexOf("child") > order.indexOf("fast"));
+        assertEquals("done", order.get(3));
+        pool.shutdown();
+    }
+
+    @Test
+    public void failedTaskDoesNotBlockDependents() {
+        List<String> order = new ArrayList<>();
+        StartupPipeline pipeline = new StartupPipeline(Runnable::run, Runnable::run);
+        pipeline.add("broken", () -> {
+            throw new IllegalStateException("no network");
+        });
+        pipeline.add("child", () -> order.add("child"), "broken");
+        // already finished, called at once
+        pipeline.whenDone(() -> order.add("done"), "child");
+        // added twice, runs once
+        pipeline.add("child", () -> order.add("child"));
+
+        assertEquals(2, order.size());
+        assertEquals("done", order.get(1));
+        assertTrue(pipeline.report(), pipeline.report().contains("(failed: java.lang.IllegalStateException: no network)"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownDependency() {
+        new StartupPipeline(Runnable::run, Runnable::run).add("task", () -> {
+        }, "missing");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
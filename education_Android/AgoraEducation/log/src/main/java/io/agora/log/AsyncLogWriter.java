@@ -0,0 +1,203 @@
+package io.agora.log;
+
+import com.elvishew.xlog.LogLevel;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log records to {@code <name>.alog} on a dedicated thread in the binary format of {@link LogEncoder}.
+ * Logging threads only fill a ring slot, encoding and file io happen here in batches. The file is rotated by size and age, and rotated files
+ * are deleted oldest first to stay within the disk budget.
+ */
+final class AsyncLogWriter implements Runnable {
+
+    private static final int CAPACITY = 8192;
+    private static final int BATCH_SIZE = 256;
+    private static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    static final long MAX_FILE_SIZE = 4 * 1024 * 1024;
+    static final long MAX_FILE_AGE = TimeUnit.HOURS.toMillis(24);
+    static final long MAX_TOTAL_SIZE = 32 * 1024 * 1024;
+
+    private final LogRingBuffer buffer;
+    private final File dir;
+    private final String name;
+    private final Thread thread;
+
+    private final LogEncoder encoder = new LogEncoder();
+    private final SimpleDateFormat fileFormat = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US);
+    private OutputStream out;
+    private long fileSize;
+    private long fileOpenTime;
+    private long lastFlush;
+    private long reportedDropped;
+
+    AsyncLogWriter(File dir, String name) {
+        this(dir, name, new LogRingBuffer(CAPACITY));
+    }
+
+    /**
+     * records stay in the given ring until the writer is started
+     */
+    AsyncLogWriter(File dir, String name, LogRingBuffer buffer) {
+        this.dir = dir;
+        this.name = name;
+        this.buffer = buffer;
+        thread = new Thread(this, "LogWriter");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * never blocks, the record is dropped if the writer falls behind
+     */
+    void log(int level, String tag, String format, Object[] args) {
+        long pos = buffer.claim();
+        if (pos < 0) return;
+        LogRecord record = fill(pos, level, tag, format);
+        record.args = args;
+        publish(pos);
+    }
+
+    /**
+     * allocation free variant, arguments are stored unboxed in the record
+     */
+    void log(int level, String tag, String format, int argCount,
+             byte type0, long value0, Object object0, byte type1, long value1, Object object1) {
+        long pos = buffer.claim();
+        if (pos < 0) return;
+        LogRecord record = fill(pos, level, tag, format);
+        record.argCount = argCount;
+        record.set(0, type0, value0, object0);
+        record.set(1, type1, value1, object1);
+        publish(pos);
+    }
+
+    private LogRecord fill(long pos, int level, String tag, String format) {
+        LogRecord record = buffer.get(pos);
+        record.level = level;
+        record.time = System.currentTimeMillis();
+        record.tag = tag;
+        record.format = format;
+        return record;
+    }
+
+    private void publish(long pos) {
+        buffer.publish(pos);
+        if ((pos & (BATCH_SIZE - 1)) == 0) {
+            // wake the writer early under bursts instead of letting the ring fill up
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            int count = 0;
+            boolean urgent = false;
+            LogRecord record;
+            while (count < BATCH_SIZE && (record = buffer.poll()) != null) {
+                urgent |= record.level >= LogLevel.ERROR;
+                write(record);
+                buffer.release();
+                count++;
+            }
+            if (count == 0) {
+                flush();
+                LockSupport.parkNanos(FLUSH_INTERVAL / 4);
+            } else if (urgent || System.nanoTime() - lastFlush > FLUSH_INTERVAL) {
+                flush();
+            }
+        }
+    }
+
+    private void write(LogRecord record) {
+        try {
+            if (out == null || fileSize >= MAX_FILE_SIZE
+                    || System.currentTimeMillis() - fileOpenTime >= MAX_FILE_AGE) {
+                rotate();
+            }
+            long dropped = buffer.getDroppedCount();
+            if (dropped != reportedDropped) {
+                encoder.writeDropped(dropped - reportedDropped);
+                reportedDropped = dropped;
+            }
+            encoder.writeRecord(record);
+            fileSize += encoder.flushTo(out);
+        } catch (IOException e) {
+            // drop the record, the next one reopens the file
+            close();
+        }
+    }
+
+    private void flush() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            close();
+        }
+        lastFlush = System.nanoTime();
+    }
+
+    private void rotate() throws IOException {
+        File file = new File(dir, name + LogDecoder.EXTENSION);
+        if (out != null) {
+            close();
+            //noinspection ResultOfMethodCallIgnored
+            file.renameTo(new File(dir, name + "-" + fileFormat.format(new Date()) + LogDecoder.EXTENSION));
+        } else if (!dir.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            dir.mkdirs();
+        }
+        trim();
+        out = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+        fileSize = file.length();
+        fileOpenTime = System.currentTimeMillis();
+        // appended blocks restart interning, so every block decodes on its own
+        encoder.writeHeader();
+        fileSize += encoder.flushTo(out);
+    }
+
+    /**
+     * delete rotated files oldest first until all files of this writer fit in {@link #MAX_TOTAL_SIZE}
+     */
+    private void trim() {
+        File[] files = dir.listFiles((d, fileName) -> fileName.startsWith(name + "-") && fileName.endsWith(LogDecoder.EXTENSION));
+        if (files == null) return;
+        // rotated names sort by time
+        Arrays.sort(files);
+        long total = new File(dir, name + LogDecoder.EXTENSION).length();
+        for (File file : files) {
+            total += file.length();
+        }
+        for (int i = 0; i < files.length && total > MAX_TOTAL_SIZE - MAX_FILE_SIZE; i++) {
+            total -= files[i].length();
+            //noinspection ResultOfMethodCallIgnored
+            files[i].delete();
+        }
+    }
+
+    private void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        }
+        out = null;
+    }
+
+}
@@ -0,0 +1,302 @@
+package io.agora.log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Turns binary logs written by {@link LogEncoder} back into text. Depends on the JDK only, so it runs
+ * on a desktop JVM against uploaded archives:
+ * <pre>
+ * javac -d out log/src/main/java/io/agora/log/LogDecoder.java
+ * java -cp out io.agora.log.LogDecoder logs.zip [more.alog ...]
+ * </pre>
+ * ZIP archives are scanned for {@code .alog} entries, other entries are printed as they are.
+ */
+public final class LogDecoder {
+
+    public static final String EXTENSION = ".alog";
+
+    static final byte[] MAGIC = {'A', 'L', 'O', 'G'};
+    static final int VERSION = 2;
+
+    static final int KIND_RECORD = 1;
+    static final int KIND_DROPPED = 2;
+
+    static final int ARG_LONG = 0;
+    static final int ARG_DOUBLE = 1;
+    static final int ARG_BOOLEAN = 2;
+    static final int ARG_STRING = 3;
+    static final int ARG_NULL = 4;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String LEVELS = "??VDIWE";
+
+    private final InputStream in;
+    private byte[] data;
+    private int pos;
+    /**
+     * end of the record being read
+     */
+    private int limit;
+    private final CRC32 crc = new CRC32();
+    private int[] headers;
+    private final List<String> interned = new ArrayList<>();
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+    private final StringBuilder builder = new StringBuilder(256);
+    private long lastTime;
+
+    public LogDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: LogDecoder <archive.zip | file" + EXTENSION + ">...");
+            System.exit(1);
+        }
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, UTF_8));
+        for (String path : args) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(path))) {
+                if (path.endsWith(".zip")) {
+                    decodeZip(in, out);
+                } else {
+                    new LogDecoder(in).decode(out);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public static void decodeZip(InputStream in, Writer out) throws IOException {
+        ZipInputStream zis = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zis.getNextEntry()) != null) {
+            if (entry.isDirectory()) continue;
+            out.write("==> " + entry.getName() + " <==\n");
+            if (entry.getName().endsWith(EXTENSION)) {
+                new LogDecoder(zis).decode(out);
+            } else {
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = zis.read(buffer)) != -1) {
+                    out.write(new String(buffer, 0, length, UTF_8));
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode until the end of the stream. A record that does not parse, like one cut by a crash, is
+     * skipped and decoding resumes at the header of the next session appended to the file.
+     */
+    public void decode(Writer out) throws IOException {
+        data = readAll(in);
+        pos = 0;
+        limit = data.length;
+        headers = findHeaders(data);
+        while (pos < data.length) {
+            int start = pos;
+            try {
+                int kind = readByte();
+                if (kind == MAGIC[0]) {
+                    readHeader();
+                } else if (kind == KIND_RECORD) {
+                    int length = readLength();
+                    int end = pos + length;
+                    if (end + 2 > data.length) throw new EOFException();
+                    crc.reset();
+                    crc.update(data, pos, length);
+                    if (((int) crc.getValue() & 0xFFFF) != readShort(end)) {
+                        throw new IOException("record checksum mismatch");
+                    }
+                    limit = end;
+                    String text = readRecord();
+                    limit = data.length;
+                    if (pos != end) {
+                        throw new IOException("record length mismatch");
+                    }
+                    pos += 2;
+                    out.write(text);
+                } else if (kind == KIND_DROPPED) {
+                    out.write("--- " + readVarLong() + " records dropped ---\n");
+                } else {
+                    throw new IOException("unknown block kind " + kind);
+                }
+            } catch (IOException e) {
+                // EOFException included, the app was killed in the middle of a write
+                limit = data.length;
+                int next = nextHeader(start + 1);
+                if (next < 0) return;
+                pos = next;
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * offsets of all session headers, in order
+     */
+    private static int[] findHeaders(byte[] data) {
+        int[] offsets = new int[16];
+        int count = 0;
+        for (int i = 0; i + MAGIC.length < data.length; i++) {
+            if (data[i] == MAGIC[0] && data[i + 1] == MAGIC[1] && data[i + 2] == MAGIC[2]
+                    && data[i + 3] == MAGIC[3] && data[i + 4] == VERSION) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = i;
+            }
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * @return the first header at or after the offset, -1 if none
+     */
+    private int nextHeader(int from) {
+        int index = Arrays.binarySearch(headers, from);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < headers.length ? headers[index] : -1;
+    }
+
+    private void readHeader() throws IOException {
+        for (int i = 1; i < MAGIC.length; i++) {
+            if (readByte() != MAGIC[i]) {
+                throw new IOException("bad magic");
+            }
+        }
+        int version = readByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported version " + version);
+        }
+        interned.clear();
+        lastTime = 0;
+    }
+
+    private String readRecord() throws IOException {
+        int level = readByte();
+        lastTime += unzigzag(readVarLong());
+        String tag = readStringRef();
+        String format = readStringRef();
+        Object[] args = new Object[readLength()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readArg();
+        }
+        builder.setLength(0);
+        builder.append(timeFormat.format(new Date(lastTime)))
+                .append(' ').append(level >= 0 && level < LEVELS.length() ? LEVELS.charAt(level) : '?')
+                .append('/').append(tag).append(": ");
+        try {
+            builder.append(args.length == 0 ? format : String.format(format, args));
+        } catch (RuntimeException e) {
+            builder.append(format).append(' ').append(Arrays.toString(args));
+        }
+        return builder.append('\n').toString();
+    }
+
+    private Object readArg() throws IOException {
+        int type = readByte();
+        switch (type) {
+            case ARG_LONG:
+                return unzigzag(readVarLong());
+            case ARG_DOUBLE:
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits |= (long) readByte() << (i * 8);
+                }
+                return Double.longBitsToDouble(bits);
+            case ARG_BOOLEAN:
+                return readByte() != 0;
+            case ARG_STRING:
+                return readString();
+            case ARG_NULL:
+                return null;
+            default:
+                throw new IOException("unknown argument type " + type);
+        }
+    }
+
+    private String readStringRef() throws IOException {
+        int id = (int) readVarLong();
+        if (id == 0) {
+            return readString();
+        }
+        if (id == interned.size() + 1) {
+            interned.add(readString());
+        } else if (id > interned.size()) {
+            throw new IOException("unknown string id " + id);
+        }
+        return interned.get(id - 1);
+    }
+
+    private String readString() throws IOException {
+        int length = readLength();
+        String string = new String(data, pos, length, UTF_8);
+        pos += length;
+        return string;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    /**
+     * a length can not go past the end of the data, so a corrupt one fails before allocating
+     */
+    private int readLength() throws IOException {
+        long length = readVarLong();
+        if (length > limit - pos) throw new EOFException();
+        return (int) length;
+    }
+
+    private int readShort(int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private int readByte() throws IOException {
+        if (pos >= limit) throw new EOFException();
+        return data[pos++] & 0xFF;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,223 @@
+package io.agora.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Encodes log records into the compact binary format read by {@link LogDecoder}.
+ * <p>
+ * A stream is a sequence of blocks, each starting with the header {@code "ALOG" version}.
+ * A record is its kind byte, the varint length of its body, the body and the low 16 bits of the CRC32
+ * of the body, little endian, so a record cut by a crash is detected instead of being read into the next block. Within a block, tags and formats are interned: a string reference is a varint id, {@code 0} means an
+ * inline string follows, an id one above the last known one defines a new entry and is followed by the
+ * string. Timestamps are zigzag varint deltas from the previous record, integer arguments are zigzag
+ * varints and strings are varint length prefixed UTF-8.
+ * <p>
+ * Not thread safe, used by the writer thread only.
+ */
+final class LogEncoder {
+
+    /**
+     * formats built at runtime would grow the table forever, they are written inline past this size
+     */
+    static final int MAX_INTERNED = 4096;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, Integer> interned = new HashMap<>();
+    private long lastTime;
+    private byte[] buffer = new byte[512];
+    private int size;
+    /**
+     * body offset of the record being written, its length prefix is inserted when the next block,
+     * record or flush starts, -1 if none
+     */
+    private int recordStart = -1;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * start a new block, must be called whenever the output file changes
+     */
+    void writeHeader() {
+        endRecord();
+        interned.clear();
+        lastTime = 0;
+        writeBytes(LogDecoder.MAGIC, 0, LogDecoder.MAGIC.length);
+        writeByte(LogDecoder.VERSION);
+    }
+
+    void writeDropped(long count) {
+        endRecord();
+        writeByte(LogDecoder.KIND_DROPPED);
+        writeVarLong(count);
+    }
+
+    void writeRecord(int level, long time, String tag, String format, Object[] args) {
+        writeRecordHead(level, time, tag, format, args == null ? 0 : args.length);
+        if (args == null) return;
+        for (Object arg : args) {
+            writeArg(arg);
+        }
+    }
+
+    void writeRecord(LogRecord record) {
+        if (record.args != null) {
+            writeRecord(record.level, record.time, record.tag, record.format, record.args);
+            return;
+        }
+        writeRecordHead(record.level, record.time, record.tag, record.format, record.argCount);
+        for (int i = 0; i < record.argCount; i++) {
+            switch (record.types[i]) {
+                case LogRecord.TYPE_LONG:
+                    writeByte(LogDecoder.ARG_LONG);
+                    writeVarLong(zigzag(record.values[i]));
+                    break;
+                case LogRecord.TYPE_DOUBLE:
+                    writeByte(LogDecoder.ARG_DOUBLE);
+                    writeFixedLong(record.values[i]);
+                    break;
+                case LogRecord.TYPE_BOOLEAN:
+                    writeByte(LogDecoder.ARG_BOOLEAN);
+                    writeByte((int) record.values[i]);
+                    break;
+                default:
+                    writeArg(record.objects[i]);
+            }
+        }
+    }
+
+    /**
+     * @return bytes written
+     */
+    int flushTo(OutputStream out) throws IOException {
+        endRecord();
+        int count = size;
+        out.write(buffer, 0, size);
+        size = 0;
+        if (buffer.length > 64 * 1024) {
+            // do not keep the room of one huge message
+            buffer = new byte[512];
+        }
+        return count;
+    }
+
+    private void writeRecordHead(int level, long time, String tag, String format, int argCount) {
+        endRecord();
+        writeByte(LogDecoder.KIND_RECORD);
+        recordStart = size;
+        writeByte(level);
+        writeVarLong(zigzag(time - lastTime));
+        lastTime = time;
+        writeStringRef(tag);
+        writeStringRef(format);
+        writeVarLong(argCount);
+    }
+
+    private void endRecord() {
+        if (recordStart < 0) return;
+        long length = size - recordStart;
+        int prefix = 1;
+        while ((length >>> (7 * prefix)) != 0) {
+            prefix++;
+        }
+        ensure(prefix);
+        System.arraycopy(buffer, recordStart, buffer, recordStart + prefix, size - recordStart);
+        int end = size + prefix;
+        size = recordStart;
+        writeVarLong(length);
+        size = end;
+        crc.reset();
+        crc.update(buffer, recordStart + prefix, (int) length);
+        writeShort((int) crc.getValue());
+        recordStart = -1;
+    }
+
+    private void writeArg(Object arg) {
+        if (arg == null) {
+            writeByte(LogDecoder.ARG_NULL);
+        } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            writeByte(LogDecoder.ARG_LONG);
+            writeVarLong(zigzag(((Number) arg).longValue()));
+        } else if (arg instanceof Double || arg instanceof Float) {
+            writeByte(LogDecoder.ARG_DOUBLE);
+            writeFixedLong(Double.doubleToRawLongBits(((Number) arg).doubleValue()));
+        } else if (arg instanceof Boolean) {
+            writeByte(LogDecoder.ARG_BOOLEAN);
+            writeByte((Boolean) arg ? 1 : 0);
+        } else {
+            writeByte(LogDecoder.ARG_STRING);
+            writeString(String.valueOf(arg));
+        }
+    }
+
+    private void writeStringRef(String value) {
+        if (value == null) value = "null";
+        Integer id = interned.get(value);
+        if (id != null) {
+            writeVarLong(id);
+        } else if (interned.size() < MAX_INTERNED) {
+            id = interned.size() + 1;
+            interned.put(value, id);
+            writeVarLong(id);
+            writeString(value);
+        } else {
+            writeVarLong(0);
+            writeString(value);
+        }
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeShort(int value) {
+        ensure(2);
+        buffer[size++] = (byte) value;
+        buffer[size++] = (byte) (value >>> 8);
+    }
+
+    private void writeFixedLong(long value) {
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[size++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    private void ensure(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+        }
+    }
+
+}
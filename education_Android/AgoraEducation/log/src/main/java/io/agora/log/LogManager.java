@@ -7,15 +7,29 @@ import com.elvishew.xlog.LogLevel;
 import com.elvishew.xlog.Logger;
 import com.elvishew.xlog.XLog;
 import com.elvishew.xlog.printer.AndroidPrinter;
-import com.elvishew.xlog.printer.file.FilePrinter;
-import com.elvishew.xlog.printer.file.naming.ChangelessFileNameGenerator;
 
 import java.io.File;
 
+/**
+ * File logs are written asynchronously by {@link AsyncLogWriter} in a binary format, messages are only
+ * formatted when decoded with {@link LogDecoder}. Arguments are converted on the writer thread, so they
+ * should not be mutated after logging. Debug builds also print to logcat.
+ * <p>
+ * Calls with up to two primitive or object arguments are stored unboxed without allocating,
+ * debug logs are stripped from release builds.
+ */
 public class LogManager {
 
+    /**
+     * guards every debug call site, the shrinker folds it and drops the debug paths of release builds
+     */
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
     public static File path;
     private static String tag;
+    private static AsyncLogWriter writer;
+    private static volatile int level = LogLevel.ALL;
+    private final String fullTag;
     private Logger logger;
 
     public static void init(Context context, String tag) {
@@ -24,30 +38,307 @@ public class LogManager {
         XLog.init(new LogConfiguration.Builder()
                         .logLevel(LogLevel.ALL)
                         .tag(tag).build(),
-                new AndroidPrinter(),
-                new FilePrinter.Builder(path.getPath())
-                        .fileNameGenerator(new ChangelessFileNameGenerator(tag + ".log"))
-                        .build());
+                new AndroidPrinter());
+        writer = new AsyncLogWriter(path, tag);
+        writer.start();
+    }
+
+    /**
+     * @param level one of {@link LogLevel}, lower levels are dropped before anything is recorded
+     */
+    public static void setLevel(int level) {
+        LogManager.level = level;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= LogManager.level;
     }
 
     public LogManager(String tag) {
-        logger = XLog.tag(LogManager.tag + " " + tag).build();
+        fullTag = LogManager.tag + " " + tag;
+        logger = XLog.tag(fullTag).build();
+    }
+
+    public void d(String msg) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 0, LogRecord.TYPE_OBJECT, 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void d(String msg, long arg) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 1, LogRecord.TYPE_LONG, arg, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void d(String msg, double arg) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 1, LogRecord.TYPE_DOUBLE, Double.doubleToRawLongBits(arg), null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void d(String msg, boolean arg) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 1, LogRecord.TYPE_BOOLEAN, arg ? 1 : 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void d(String msg, Object arg) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 1, LogRecord.TYPE_OBJECT, 0, arg, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void d(String msg, long arg0, long arg1) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void d(String msg, boolean arg0, long arg1) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 2, LogRecord.TYPE_BOOLEAN, arg0 ? 1 : 0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void d(String msg, Object arg0, long arg1) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void d(String msg, long arg0, Object arg1) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
+    }
+
+    public void d(String msg, Object arg0, Object arg1) {
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
     }
 
     public void d(String msg, Object... args) {
-        logger.d(msg, args);
+        if (DEBUG && isLoggable(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, msg, args);
+        }
+    }
+
+    public void i(String msg) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 0, LogRecord.TYPE_OBJECT, 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void i(String msg, long arg) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 1, LogRecord.TYPE_LONG, arg, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void i(String msg, double arg) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 1, LogRecord.TYPE_DOUBLE, Double.doubleToRawLongBits(arg), null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void i(String msg, boolean arg) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 1, LogRecord.TYPE_BOOLEAN, arg ? 1 : 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void i(String msg, Object arg) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 1, LogRecord.TYPE_OBJECT, 0, arg, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void i(String msg, long arg0, long arg1) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void i(String msg, boolean arg0, long arg1) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 2, LogRecord.TYPE_BOOLEAN, arg0 ? 1 : 0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void i(String msg, Object arg0, long arg1) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void i(String msg, long arg0, Object arg1) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
+    }
+
+    public void i(String msg, Object arg0, Object arg1) {
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
     }
 
     public void i(String msg, Object... args) {
-        logger.i(msg, args);
+        if (isLoggable(LogLevel.INFO)) {
+            log(LogLevel.INFO, msg, args);
+        }
+    }
+
+    public void w(String msg) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 0, LogRecord.TYPE_OBJECT, 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void w(String msg, long arg) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 1, LogRecord.TYPE_LONG, arg, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void w(String msg, double arg) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 1, LogRecord.TYPE_DOUBLE, Double.doubleToRawLongBits(arg), null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void w(String msg, boolean arg) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 1, LogRecord.TYPE_BOOLEAN, arg ? 1 : 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void w(String msg, Object arg) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 1, LogRecord.TYPE_OBJECT, 0, arg, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void w(String msg, long arg0, long arg1) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void w(String msg, boolean arg0, long arg1) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 2, LogRecord.TYPE_BOOLEAN, arg0 ? 1 : 0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void w(String msg, Object arg0, long arg1) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void w(String msg, long arg0, Object arg1) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
+    }
+
+    public void w(String msg, Object arg0, Object arg1) {
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
     }
 
     public void w(String msg, Object... args) {
-        logger.w(msg, args);
+        if (isLoggable(LogLevel.WARN)) {
+            log(LogLevel.WARN, msg, args);
+        }
+    }
+
+    public void e(String msg) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 0, LogRecord.TYPE_OBJECT, 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void e(String msg, long arg) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 1, LogRecord.TYPE_LONG, arg, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void e(String msg, double arg) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 1, LogRecord.TYPE_DOUBLE, Double.doubleToRawLongBits(arg), null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void e(String msg, boolean arg) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 1, LogRecord.TYPE_BOOLEAN, arg ? 1 : 0, null, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void e(String msg, Object arg) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 1, LogRecord.TYPE_OBJECT, 0, arg, LogRecord.TYPE_OBJECT, 0, null);
+        }
+    }
+
+    public void e(String msg, long arg0, long arg1) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void e(String msg, boolean arg0, long arg1) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 2, LogRecord.TYPE_BOOLEAN, arg0 ? 1 : 0, null, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void e(String msg, Object arg0, long arg1) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_LONG, arg1, null);
+        }
+    }
+
+    public void e(String msg, long arg0, Object arg1) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 2, LogRecord.TYPE_LONG, arg0, null, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
+    }
+
+    public void e(String msg, Object arg0, Object arg1) {
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, 2, LogRecord.TYPE_OBJECT, 0, arg0, LogRecord.TYPE_OBJECT, 0, arg1);
+        }
     }
 
     public void e(String msg, Object... args) {
-        logger.e(msg, args);
+        if (isLoggable(LogLevel.ERROR)) {
+            log(LogLevel.ERROR, msg, args);
+        }
+    }
+
+    private void log(int level, String msg, Object[] args) {
+        if (DEBUG) {
+            logger.log(level, msg, args);
+        }
+        writer.log(level, fullTag, msg, args);
+    }
+
+    private void log(int level, String msg, int argCount,
+                     byte type0, long value0, Object object0, byte type1, long value1, Object object1) {
+        if (DEBUG) {
+            Object[] args = new Object[argCount];
+            if (argCount > 0) args[0] = LogRecord.box(type0, value0, object0);
+            if (argCount > 1) args[1] = LogRecord.box(type1, value1, object1);
+            logger.log(level, msg, args);
+        }
+        writer.log(level, fullTag, msg, argCount, type0, value0, object0, type1, value1, object1);
     }
 
 }
@@ -0,0 +1,52 @@
+package io.agora.log;
+
+/**
+ * Pre-allocated slot of {@link LogRingBuffer}, filled by the logging thread and encoded by the writer.
+ * Up to {@link #MAX_ARGS} arguments are stored unboxed in the slot, more arguments are kept as an array.
+ */
+final class LogRecord {
+    static final int MAX_ARGS = 2;
+
+    static final byte TYPE_LONG = 0;
+    static final byte TYPE_DOUBLE = 1;
+    static final byte TYPE_BOOLEAN = 2;
+    static final byte TYPE_OBJECT = 3;
+
+    int level;
+    long time;
+    String tag;
+    String format;
+    int argCount;
+    final byte[] types = new byte[MAX_ARGS];
+    final long[] values = new long[MAX_ARGS];
+    final Object[] objects = new Object[MAX_ARGS];
+    Object[] args;
+
+    void set(int index, byte type, long value, Object object) {
+        types[index] = type;
+        values[index] = value;
+        objects[index] = object;
+    }
+
+    static Object box(byte type, long value, Object object) {
+        switch (type) {
+            case TYPE_LONG:
+                return value;
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(value);
+            case TYPE_BOOLEAN:
+                return value != 0;
+            default:
+                return object;
+        }
+    }
+
+    void clear() {
+        tag = null;
+        format = null;
+        args = null;
+        argCount = 0;
+        objects[0] = null;
+        objects[1] = null;
+    }
+}
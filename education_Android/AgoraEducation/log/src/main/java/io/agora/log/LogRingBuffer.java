@@ -0,0 +1,86 @@
+package io.agora.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring of {@link LogRecord}s with many producers and one consumer.
+ * <p>
+ * Every slot carries a sequence number: a producer owns slot {@code pos} once the sequence equals
+ * {@code pos} and it wins the claim, it publishes the record by setting the sequence to {@code pos + 1}.
+ * The consumer releases the slot for the next round by setting the sequence to {@code pos + capacity}.
+ * A full ring never blocks the producer, the record is dropped and counted instead.
+ */
+final class LogRingBuffer {
+
+    private final int mask;
+    private final LogRecord[] records;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * consumer thread only
+     */
+    private long head;
+
+    LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        mask = capacity - 1;
+        records = new LogRecord[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new LogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return position of the claimed slot, or -1 if the ring is full
+     */
+    long claim() {
+        while (true) {
+            long pos = tail.get();
+            long diff = sequences.get((int) pos & mask) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+        }
+    }
+
+    LogRecord get(long pos) {
+        return records[(int) pos & mask];
+    }
+
+    void publish(long pos) {
+        sequences.set((int) pos & mask, pos + 1);
+    }
+
+    /**
+     * @return the next published record, or null if there is none yet. Must be released before polling again.
+     */
+    LogRecord poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        return records[index];
+    }
+
+    void release() {
+        int index = (int) head & mask;
+        records[index].clear();
+        sequences.set(index, head + records.length);
+        head++;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
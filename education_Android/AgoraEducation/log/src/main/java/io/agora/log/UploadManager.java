@@ -2,20 +2,45 @@ package io.agora.log;
 
 import android.content.Context;
 
+import androidx.annotation.Nullable;
+
 import com.alibaba.sdk.android.oss.ClientException;
 import com.alibaba.sdk.android.oss.OSS;
 import com.alibaba.sdk.android.oss.OSSClient;
 import com.alibaba.sdk.android.oss.ServiceException;
-import com.alibaba.sdk.android.oss.callback.OSSCompletedCallback;
 import com.alibaba.sdk.android.oss.common.auth.OSSCredentialProvider;
 import com.alibaba.sdk.android.oss.common.auth.OSSStsTokenCredentialProvider;
-import com.alibaba.sdk.android.oss.model.PutObjectRequest;
-import com.alibaba.sdk.android.oss.model.PutObjectResult;
+import com.alibaba.sdk.android.oss.model.AbortMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.CompleteMultipartUploadResult;
+import com.alibaba.sdk.android.oss.model.InitiateMultipartUploadRequest;
+import com.alibaba.sdk.android.oss.model.PartETag;
+import com.alibaba.sdk.android.oss.model.UploadPartRequest;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import io.agora.base.Callback;
 import io.agora.base.network.RetrofitManager;
@@ -23,8 +48,22 @@ import io.agora.log.service.LogService;
 import io.agora.log.service.bean.ResponseBody;
 import io.agora.log.service.bean.response.LogParamsRes;
 
+/**
+ * Uploads the log directory as one ZIP archive, compressed on a background thread straight into
+ * OSS multipart parts. Files unchanged since the last successful upload are left out, the archive
+ * always carries the manifest of every file so the omitted ones can be identified.
+ */
 public class UploadManager {
 
+    /**
+     * OSS requires at least 100KB for every part but the last
+     */
+    private static final int PART_SIZE = 512 * 1024;
+    private static final String MANIFEST = "upload.manifest";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "LogUpload"));
+
     public static class UploadParam {
         public String host;
         public String appId;
@@ -34,14 +73,26 @@ public class UploadManager {
         public String uploadPath;
     }
 
+    public interface ProgressCallback {
+        /**
+         * @param current bytes of log files compressed
+         * @param total   bytes of log files to upload
+         */
+        void onProgress(long current, long total);
+    }
+
     public static void upload(Context context, UploadParam param, Callback<String> callback) {
+        upload(context, param, callback, null);
+    }
+
+    public static void upload(Context context, UploadParam param, Callback<String> callback, @Nullable ProgressCallback progress) {
         LogService service = RetrofitManager.instance().getService(param.host, LogService.class);
         service.logParams(param.appId, param.appCode, param.appVersion, param.roomId)
                 .enqueue(new RetrofitManager.Callback<>(0, new Callback<ResponseBody<LogParamsRes>>() {
                     @Override
                     public void onSuccess(ResponseBody<LogParamsRes> res) {
                         res.data.callbackUrl = service.logStsCallback().request().url().toString();
-                        uploadByOss(context, param.uploadPath, res.data, callback);
+                        executor.execute(() -> uploadByOss(context, param.uploadPath, res.data, callback, progress));
                     }
 
                     @Override
@@ -53,48 +104,195 @@ public class UploadManager {
                 }));
     }
 
-    private static void uploadByOss(Context context, String uploadPath, LogParamsRes param, Callback<String> callback) {
+    private static void uploadByOss(Context context, String uploadPath, LogParamsRes param, Callback<String> callback, ProgressCallback progress) {
+        File root = new File(uploadPath);
+        File manifestFile = new File(root.getParentFile(), MANIFEST);
+        Map<String, String> uploaded = readManifest(manifestFile);
+        Map<String, String> manifest = new LinkedHashMap<>();
+        Map<String, File> changed = new LinkedHashMap<>();
+        long total = 0;
+        for (File file : listFiles(root, new ArrayList<>())) {
+            String name = root.getName() + file.getAbsolutePath().substring(root.getAbsolutePath().length());
+            String stamp = file.length() + "\t" + file.lastModified();
+            manifest.put(name, stamp);
+            if (!stamp.equals(uploaded.get(name))) {
+                changed.put(name, file);
+                total += file.length();
+            }
+        }
+
+        // 推荐使用OSSAuthCredentialsProvider。token过期可以及时更新。
+        OSSCredentialProvider credentialProvider = new OSSStsTokenCredentialProvider(param.accessKeyId, param.accessKeySecret, param.securityToken);
+        OSS oss = new OSSClient(context, param.ossEndpoint, credentialProvider);
+        String uploadId = null;
         try {
-            File file = new File(new File(uploadPath).getParentFile(), "temp.zip");
-            ZipUtils.zipFile(new File(uploadPath), file);
+            uploadId = oss.initMultipartUpload(new InitiateMultipartUploadRequest(param.bucketName, param.ossKey)).getUploadId();
+            PartOutputStream out = new PartOutputStream(oss, param, uploadId);
+            try (ZipOutputStream zos = new ZipOutputStream(out)) {
+                ZipUtils.putEntry(zos, new ZipEntry(MANIFEST), new ByteArrayInputStream(formatManifest(manifest)));
+                long[] current = {0};
+                for (Map.Entry<String, File> entry : changed.entrySet()) {
+                    try (InputStream is = new ProgressInputStream(new FileInputStream(entry.getValue()), current, total, progress)) {
+                        ZipUtils.putEntry(zos, new ZipEntry(entry.getKey()), is);
+                    }
+                }
+            }
 
             // 构造上传请求。
-            PutObjectRequest put = new PutObjectRequest(param.bucketName, param.ossKey, file.getAbsolutePath());
-            put.setCallbackParam(new HashMap<String, String>() {{
+            CompleteMultipartUploadRequest complete = new CompleteMultipartUploadRequest(param.bucketName, param.ossKey, uploadId, out.partETags);
+            complete.setCallbackParam(new HashMap<String, String>() {{
                 put("callbackUrl", param.callbackUrl);
                 put("callbackBodyType", param.callbackContentType);
                 put("callbackBody", param.callbackBody);
             }});
+            CompleteMultipartUploadResult result = oss.completeMultipartUpload(complete);
+            writeManifest(manifestFile, manifest);
+            if (callback != null) {
+                String body = result.getServerCallbackReturnBody();
+                JsonObject json = new JsonParser().parse(body).getAsJsonObject();
+                callback.onSuccess(json.get("data").getAsString());
+            }
+        } catch (ClientException | ServiceException | IOException | RuntimeException e) {
+            if (uploadId != null) {
+                try {
+                    oss.abortMultipartUpload(new AbortMultipartUploadRequest(param.bucketName, param.ossKey, uploadId));
+                } catch (ClientException | ServiceException ignored) {
+                }
+            }
+            if (callback != null) {
+                callback.onFailure(e.getCause() instanceof ClientException || e.getCause() instanceof ServiceException
+                        ? e.getCause() : e);
+            }
+        }
+    }
 
-            // 推荐使用OSSAuthCredentialsProvider。token过期可以及时更新。
-            OSSCredentialProvider credentialProvider = new OSSStsTokenCredentialProvider(param.accessKeyId, param.accessKeySecret, param.securityToken);
-            OSS oss = new OSSClient(context, param.ossEndpoint, credentialProvider);
-            oss.asyncPutObject(put, new OSSCompletedCallback<PutObjectRequest, PutObjectResult>() {
-                @Override
-                public void onSuccess(PutObjectRequest request, PutObjectResult result) {
-                    //noinspection ResultOfMethodCallIgnored
-                    file.delete();
-                    if (callback != null) {
-                        String body = result.getServerCallbackReturnBody();
-                        JsonObject json = new JsonParser().parse(body).getAsJsonObject();
-                        callback.onSuccess(json.get("data").getAsString());
-                    }
+    private static List<File> listFiles(File dir, List<File> files) {
+        File[] fileList = dir.listFiles();
+        if (fileList != null) {
+            Arrays.sort(fileList);
+            for (File file : fileList) {
+                if (file.isDirectory()) {
+                    listFiles(file, files);
+                } else {
+                    files.add(file);
                 }
+            }
+        }
+        return files;
+    }
 
-                @Override
-                public void onFailure(PutObjectRequest request, ClientException clientException, ServiceException serviceException) {
-                    //noinspection ResultOfMethodCallIgnored
-                    file.delete();
-                    if (callback != null) {
-                        if (clientException != null)
-                            callback.onFailure(clientException);
-                        if (serviceException != null)
-                            callback.onFailure(serviceException);
-                    }
+    private static Map<String, String> readManifest(File file) {
+        Map<String, String> manifest = new HashMap<>();
+        if (!file.exists()) return manifest;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int index = line.indexOf('\t');
+                if (index > 0) {
+                    manifest.put(line.substring(0, index), line.substring(index + 1));
                 }
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
+            }
+        } catch (IOException e) {
+            // upload everything again
+            manifest.clear();
+        }
+        return manifest;
+    }
+
+    private static byte[] formatManifest(Map<String, String> manifest) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> entry : manifest.entrySet()) {
+            builder.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+        }
+        return builder.toString().getBytes(Charset.forName("UTF-8"));
+    }
+
+    private static void writeManifest(File file, Map<String, String> manifest) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(new String(formatManifest(manifest), Charset.forName("UTF-8")));
+        }
+    }
+
+    /**
+     * Uploads every {@link #PART_SIZE} bytes written as one part of the multipart upload.
+     */
+    private static class PartOutputStream extends OutputStream {
+        private final OSS oss;
+        private final LogParamsRes param;
+        private final String uploadId;
+        private final byte[] buffer = new byte[PART_SIZE];
+        private int size;
+        private final List<PartETag> partETags = new ArrayList<>();
+
+        PartOutputStream(OSS oss, LogParamsRes param, String uploadId) {
+            this.oss = oss;
+            this.param = param;
+            this.uploadId = uploadId;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == buffer.length) {
+                uploadPart();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (size == buffer.length) {
+                    uploadPart();
+                }
+                int count = Math.min(len, buffer.length - size);
+                System.arraycopy(b, off, buffer, size, count);
+                size += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (size > 0 || partETags.isEmpty()) {
+                uploadPart();
+            }
+        }
+
+        private void uploadPart() throws IOException {
+            int partNumber = partETags.size() + 1;
+            UploadPartRequest request = new UploadPartRequest(param.bucketName, param.ossKey, uploadId, partNumber);
+            request.setPartContent(Arrays.copyOf(buffer, size));
+            try {
+                partETags.add(new PartETag(partNumber, oss.uploadPart(request).getETag()));
+            } catch (ClientException | ServiceException e) {
+                throw new IOException(e);
+            }
+            size = 0;
+        }
+    }
+
+    private static class ProgressInputStream extends FilterInputStream {
+        private final long[] current;
+        private final long total;
+        private final ProgressCallback progress;
+
+        ProgressInputStream(InputStream in, long[] current, long total, ProgressCallback progress) {
+            super(in);
+            this.current = current;
+            this.total = total;
+            this.progress = progress;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0 && progress != null) {
+                current[0] += count;
+                // files may grow while being read
+                progress.onProgress(Math.min(current[0], total), total);
+            }
+            return count;
         }
     }
 
@@ -68,20 +68,33 @@ public class ZipUtils {
             try (InputStream is = new BufferedInputStream(new FileInputStream(srcFile))) {
                 ZipEntry entry = new ZipEntry(rootPath);
                 entry.setComment(comment);
-                zos.putNextEntry(entry);
-                byte[] buffer = new byte[BUFFER_LEN];
-                int len;
-                while ((len = is.read(buffer, 0, BUFFER_LEN)) != -1) {
-                    zos.write(buffer, 0, len);
-                }
-                zos.closeEntry();
-            } catch (Exception e) {
-                e.printStackTrace();
+                putEntry(zos, entry, is);
             }
         }
         return true;
     }
 
+    /**
+     * Compress the stream into a new entry of the ZIP stream.
+     *
+     * @param zos   The ZIP stream.
+     * @param entry The entry.
+     * @param is    The content of the entry, not closed.
+     * @throws IOException if an I/O error has occurred
+     */
+    public static void putEntry(final ZipOutputStream zos,
+                                final ZipEntry entry,
+                                final InputStream is)
+            throws IOException {
+        zos.putNextEntry(entry);
+        byte[] buffer = new byte[BUFFER_LEN];
+        int len;
+        while ((len = is.read(buffer, 0, BUFFER_LEN)) != -1) {
+            zos.write(buffer, 0, len);
+        }
+        zos.closeEntry();
+    }
+
     /**
      * Return whether the string is null or white space.
      *
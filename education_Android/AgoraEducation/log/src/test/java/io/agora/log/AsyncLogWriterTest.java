@@ -0,0 +1,119 @@
+package io.agora.log;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * The writer is never started, records are taken from its ring by the test.
+ */
+public class AsyncLogWriterTest {
+
+    private static final int INFO = 4;
+    private static final byte LONG = LogRecord.TYPE_LONG;
+    private static final byte DOUBLE = LogRecord.TYPE_DOUBLE;
+    private static final byte BOOLEAN = LogRecord.TYPE_BOOLEAN;
+    private static final byte OBJECT = LogRecord.TYPE_OBJECT;
+
+    private final LogRingBuffer buffer = new LogRingBuffer(8192);
+    private final AsyncLogWriter writer = new AsyncLogWriter(new File("unused"), "test", buffer);
+
+    private String[] drain() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeHeader();
+        LogRecord record;
+        while ((record = buffer.poll()) != null) {
+            encoder.writeRecord(record);
+            buffer.release();
+        }
+        encoder.flushTo(out);
+        StringWriter text = new StringWriter();
+        new LogDecoder(new ByteArrayInputStream(out.toByteArray())).decode(text);
+        String[] lines = text.toString().split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            // strip the local time
+            lines[i] = lines[i].substring(24);
+        }
+        return lines;
+    }
+
+    /**
+     * the arguments packed as the LogManager overloads do
+     */
+    @Test
+    public void overloadsRoundTrip() throws IOException {
+        writer.log(INFO, "tag", "none", 0, OBJECT, 0, null, OBJECT, 0, null);
+        writer.log(INFO, "tag", "long %d", 1, LONG, Long.MIN_VALUE, null, OBJECT, 0, null);
+        writer.log(INFO, "tag", "double %.2f", 1, DOUBLE, Double.doubleToRawLongBits(-1.5), null, OBJECT, 0, null);
+        writer.log(INFO, "tag", "boolean %b", 1, BOOLEAN, 1, null, OBJECT, 0, null);
+        writer.log(INFO, "tag", "object %s", 1, OBJECT, 0, new StringBuilder("sb"), OBJECT, 0, null);
+        writer.log(INFO, "tag", "%d %d", 2, LONG, 300, null, LONG, -7, null);
+        writer.log(INFO, "tag", "%b %d", 2, BOOLEAN, 0, null, LONG, Long.MAX_VALUE, null);
+        writer.log(INFO, "tag", "%s %d", 2, OBJECT, 0, "uid", LONG, 42, null);
+        writer.log(INFO, "tag", "%d %s", 2, LONG, 42, null, OBJECT, 0, null);
+        writer.log(INFO, "tag", "%s %s", 2, OBJECT, 0, "a", OBJECT, 0, 'b');
+        writer.log(INFO, "tag", "%s %s %s", new Object[]{1, "two", 3.0});
+        assertArrayEquals(new String[]{
+                "I/tag: none",
+                "I/tag: long " + Long.MIN_VALUE,
+                "I/tag: double -1.50",
+                "I/tag: boolean true",
+                "I/tag: object sb",
+                "I/tag: 300 -7",
+                "I/tag: false " + Long.MAX_VALUE,
+                "I/tag: uid 42",
+                "I/tag: 42 null",
+                "I/tag: a b",
+                "I/tag: 1 two 3.0"
+        }, drain());
+    }
+
+    /**
+     * bytes allocated by the logging thread for calls with two long arguments, unboxed and as varargs
+     */
+    @Test
+    public void unboxedCallsDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+        int calls = 3000;
+
+        // warm up both paths, values above the Long cache so boxing allocates. Everything fits in the ring
+        // without dropping
+        for (int i = 0; i < 500; i++) {
+            writer.log(INFO, "tag", "%d %d", 2, LONG, 1000 + i, null, LONG, i, null);
+            writer.log(INFO, "tag", "%d %d", new Object[]{1000L + i, (long) i});
+        }
+        long start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < calls; i++) {
+            writer.log(INFO, "tag", "%d %d", 2, LONG, 1000 + i, null, LONG, i + 1000, null);
+        }
+        long unboxed = threads.getThreadAllocatedBytes(thread) - start;
+
+        start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < calls; i++) {
+            writer.log(INFO, "tag", "%d %d", new Object[]{1000L + i, 1000L + i});
+        }
+        long boxed = threads.getThreadAllocatedBytes(thread) - start;
+
+        System.out.println("unboxed: " + (double) unboxed / calls + " bytes/call, varargs: "
+                + (double) boxed / calls + " bytes/call");
+        // a few hundred bytes of slack for the measurement itself
+        assertTrue("unboxed " + unboxed, unboxed < 1024);
+        assertTrue("varargs " + boxed, boxed >= 40L * calls);
+    }
+
+}
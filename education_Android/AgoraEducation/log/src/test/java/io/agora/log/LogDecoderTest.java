@@ -0,0 +1,180 @@
+package io.agora.log;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogDecoderTest {
+
+    private static final int INFO = 4;
+    private static final int ERROR = 6;
+
+    private static String[] decode(byte[] bytes) throws IOException {
+        StringWriter out = new StringWriter();
+        new LogDecoder(new ByteArrayInputStream(bytes)).decode(out);
+        return messages(out.toString());
+    }
+
+    /**
+     * strip the local time so results do not depend on the time zone
+     */
+    private static String[] messages(String text) {
+        String[] lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].length() > 24 && Character.isDigit(lines[i].charAt(0))) {
+                lines[i] = lines[i].substring(24);
+            }
+        }
+        return lines;
+    }
+
+    private static LogRecord record(int level, long time, String tag, String format) {
+        LogRecord record = new LogRecord();
+        record.level = level;
+        record.time = time;
+        record.tag = tag;
+        record.format = format;
+        return record;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeHeader();
+
+        LogRecord record = record(INFO, 1_600_000_000_000L, "edu RtcManager", "setupRemoteVideo %b %d");
+        record.argCount = 2;
+        record.set(0, LogRecord.TYPE_BOOLEAN, 1, null);
+        record.set(1, LogRecord.TYPE_LONG, -42, null);
+        encoder.writeRecord(record);
+
+        record = record(INFO, 1_600_000_000_005L, "edu RtmManager", "%s from %s %.1f");
+        record.args = new Object[]{"{\"cmd\":1}", null, 2.5};
+        encoder.writeRecord(record);
+
+        encoder.writeDropped(3);
+        // clock going back between threads
+        encoder.writeRecord(record(ERROR, 1_599_999_999_999L, "edu RtcManager", "no args"));
+        encoder.flushTo(out);
+
+        assertArrayEquals(new String[]{
+                "I/edu RtcManager: setupRemoteVideo true -42",
+                "I/edu RtmManager: {\"cmd\":1} from null 2.5",
+                "--- 3 records dropped ---",
+                "E/edu RtcManager: no args"
+        }, decode(out.toByteArray()));
+    }
+
+    @Test
+    public void appendedBlocksAndTruncation() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int block = 0; block < 2; block++) {
+            encoder.writeHeader();
+            encoder.writeRecord(INFO, 1000 + block, "tag" + block, "block %d", new Object[]{block});
+            encoder.flushTo(out);
+        }
+        byte[] bytes = out.toByteArray();
+        assertArrayEquals(new String[]{"I/tag0: block 0", "I/tag1: block 1"}, decode(bytes));
+        // killed in the middle of the last record
+        assertArrayEquals(new String[]{"I/tag0: block 0"}, decode(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    @Test
+    public void truncatedRecordFollowedByNewBlock() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        encoder.writeHeader();
+        encoder.writeRecord(INFO, 1000, "tag0", "kept %d", new Object[]{0});
+        encoder.flushTo(first);
+        int kept = first.size();
+        encoder.writeRecord(INFO, 1001, "tag0", "cut %s", new Object[]{"a long enough argument"});
+        encoder.flushTo(first);
+
+        encoder = new LogEncoder();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        encoder.writeHeader();
+        encoder.writeRecord(INFO, 2000, "tag1", "next session %d", new Object[]{1});
+        encoder.flushTo(second);
+
+        // killed at every possible point of the second record, then the app starts again and appends
+        for (int cut = kept + 1; cut < first.size(); cut++) {
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            file.write(first.toByteArray(), 0, cut);
+            file.write(second.toByteArray());
+            assertArrayEquals("cut at " + cut, new String[]{"I/tag0: kept 0", "I/tag1: next session 1"},
+                    decode(file.toByteArray()));
+        }
+    }
+
+    @Test
+    public void headerBytesInsideRecord() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeHeader();
+        encoder.writeRecord(INFO, 1000, "tag", "msg %s", new Object[]{"open CATALOG"});
+        encoder.writeRecord(INFO, 1001, "tag", "msg %s", new Object[]{"ALOG\u0002ALOG"});
+        encoder.writeRecord(INFO, 1002, "tag", "done", null);
+        encoder.flushTo(out);
+        assertArrayEquals(new String[]{"I/tag: msg open CATALOG", "I/tag: msg ALOG\u0002ALOG", "I/tag: done"},
+                decode(out.toByteArray()));
+    }
+
+    @Test
+    public void internedStringsShrinkOutput() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeHeader();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            long time = 1_600_000_000_000L + i * 10;
+            encoder.writeRecord(INFO, time, "edu RtmManager", "onConnectionStateChanged %d %d", new Object[]{i % 5, i % 7});
+            text.append("2020-09-13 12:26:40.000 I/edu RtmManager: onConnectionStateChanged ")
+                    .append(i % 5).append(' ').append(i % 7).append('\n');
+        }
+        encoder.flushTo(out);
+        assertTrue(out.size() * 5 < text.length());
+        String[] lines = decode(out.toByteArray());
+        assertEquals(1000, lines.length);
+        assertEquals("I/edu RtmManager: onConnectionStateChanged 4 5", lines[999]);
+    }
+
+    @Test
+    public void zipArchive() throws IOException {
+        LogEncoder encoder = new LogEncoder();
+        encoder.writeHeader();
+        encoder.writeRecord(INFO, 1000, "tag", "hello %s", new Object[]{"world"});
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        encoder.flushTo(log);
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+            zos.putNextEntry(new ZipEntry("logs/edu" + LogDecoder.EXTENSION));
+            zos.write(log.toByteArray());
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("logs/agorasdk.log"));
+            zos.write("sdk text\n".getBytes("UTF-8"));
+            zos.closeEntry();
+        }
+        StringWriter out = new StringWriter();
+        LogDecoder.decodeZip(new ByteArrayInputStream(zip.toByteArray()), out);
+        assertArrayEquals(new String[]{
+                "==> logs/edu.alog <==",
+                "I/tag: hello world",
+                "==> logs/agorasdk.log <==",
+                "sdk text"
+        }, messages(out.toString()));
+    }
+
+}
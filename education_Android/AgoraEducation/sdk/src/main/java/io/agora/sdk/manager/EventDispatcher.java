@@ -0,0 +1,165 @@
+package io.agora.sdk.manager;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.agora.log.LogManager;
+
+/**
+ * Delivers sdk callbacks to registered listeners in order on one dedicated thread,
+ * so listeners never run on the sdk native callback thread.
+ * <p>
+ * Listeners are kept in a snapshot array replaced on register/unregister, dispatch reads it without locking.
+ */
+public final class EventDispatcher<L> {
+
+    private static final int QUEUE_CAPACITY = 512;
+
+    public interface Event<L> {
+        void dispatch(L listener);
+    }
+
+    public static final class Stats {
+        public final String listener;
+        public final long count;
+        public final long totalNanos;
+        public final long maxNanos;
+
+        Stats(String listener, long count, long totalNanos, long maxNanos) {
+            this.listener = listener;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getAverageNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("%s count=%d avg=%dus max=%dus",
+                    listener, count, getAverageNanos() / 1000, maxNanos / 1000);
+        }
+    }
+
+    private static final class Entry<L> {
+        final L listener;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Entry(L listener) {
+            this.listener = listener;
+        }
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max;
+            while (nanos > (max = maxNanos.get())) {
+                if (maxNanos.compareAndSet(max, nanos)) break;
+            }
+        }
+    }
+
+    private final LogManager log;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong queueFullCount = new AtomicLong();
+    private volatile Entry<L>[] entries;
+    private volatile Thread thread;
+
+    @SuppressWarnings("unchecked")
+    EventDispatcher(String name) {
+        log = new LogManager(name + "Dispatcher");
+        entries = new Entry[0];
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> thread = new Thread(runnable, name + "-event"),
+                (runnable, pool) -> {
+                    queueFullCount.incrementAndGet();
+                    if (Thread.currentThread() == thread) {
+                        // dispatched from a listener, waiting for our own queue would never end
+                        log.w("event queue full, delivering nested event inline");
+                        runnable.run();
+                        return;
+                    }
+                    // keep order and never drop a sdk event, block the sdk thread until there is room
+                    log.w("event queue full, blocking sdk callback thread");
+                    try {
+                        pool.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+    }
+
+    public synchronized void register(L listener) {
+        for (Entry<L> entry : entries) {
+            if (entry.listener == listener) return;
+        }
+        Entry<L>[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+        newEntries[entries.length] = new Entry<>(listener);
+        entries = newEntries;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized void unregister(L listener) {
+        Entry<L>[] oldEntries = entries;
+        for (int i = 0; i < oldEntries.length; i++) {
+            if (oldEntries[i].listener == listener) {
+                Entry<L>[] newEntries = new Entry[oldEntries.length - 1];
+                System.arraycopy(oldEntries, 0, newEntries, 0, i);
+                System.arraycopy(oldEntries, i + 1, newEntries, i, oldEntries.length - i - 1);
+                entries = newEntries;
+                return;
+            }
+        }
+    }
+
+    /**
+     * queue the event, listeners registered when it is delivered receive it
+     */
+    public void dispatch(Event<L> event) {
+        executor.execute(() -> {
+            for (Entry<L> entry : entries) {
+                long start = System.nanoTime();
+                try {
+                    event.dispatch(entry.listener);
+                } catch (RuntimeException e) {
+                    log.e("listener %s failed: %s", entry.listener.getClass().getName(), e);
+                }
+                entry.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * @return dispatch latency counters of the currently registered listeners
+     */
+    public List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (Entry<L> entry : entries) {
+            stats.add(new Stats(entry.listener.getClass().getName(), entry.count.get(),
+                    entry.totalNanos.get(), entry.maxNanos.get()));
+        }
+        return stats;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getQueueFullCount() {
+        return queueFullCount.get();
+    }
+
+}
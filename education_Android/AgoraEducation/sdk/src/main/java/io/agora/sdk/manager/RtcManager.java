@@ -6,7 +6,6 @@ import android.view.SurfaceView;
 import androidx.annotation.NonNull;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -27,12 +26,12 @@ public final class RtcManager extends SdkManager<RtcEngine> {
 
     private final LogManager log = new LogManager(this.getClass().getSimpleName());
 
-    private List<RtcEventListener> listeners;
+    private EventDispatcher<RtcEventListener> dispatcher;
 
     private static RtcManager instance;
 
     private RtcManager() {
-        listeners = new ArrayList<>();
+        dispatcher = new EventDispatcher<>("Rtc");
     }
 
     public static RtcManager instance() {
@@ -84,11 +83,15 @@ public final class RtcManager extends SdkManager<RtcEngine> {
     }
 
     public void registerListener(RtcEventListener listener) {
-        listeners.add(listener);
+        dispatcher.register(listener);
     }
 
     public void unregisterListener(RtcEventListener listener) {
-        listeners.remove(listener);
+        dispatcher.unregister(listener);
+    }
+
+    public List<EventDispatcher.Stats> getDispatchStats() {
+        return dispatcher.getStats();
     }
 
     public void setChannelProfile(@ChannelProfile int profile) {
@@ -121,6 +124,20 @@ public final class RtcManager extends SdkManager<RtcEngine> {
         sdk.setRemoteDefaultVideoStreamType(streamType);
     }
 
+    /**
+     * stop receiving and decoding the video of a remote user, audio is not affected
+     */
+    public void muteRemoteVideoStream(int uid, boolean isMute) {
+        sdk.muteRemoteVideoStream(uid, isMute);
+    }
+
+    /**
+     * report the active speaker through {@link RtcEventListener#onActiveSpeaker(int)}
+     */
+    public void enableAudioVolumeIndication(int interval, int smooth) {
+        sdk.enableAudioVolumeIndication(interval, smooth);
+    }
+
     public SurfaceView createRendererView(Context context) {
         return RtcEngine.CreateRendererView(context);
     }
@@ -145,32 +162,29 @@ public final class RtcManager extends SdkManager<RtcEngine> {
         @Override
         public void onJoinChannelSuccess(String channel, int uid, int elapsed) {
             log.i("onJoinChannelSuccess %s %d", channel, uid);
-            for (RtcEventListener listener : listeners) {
-                listener.onJoinChannelSuccess(channel, uid, elapsed);
-            }
+            dispatcher.dispatch(listener -> listener.onJoinChannelSuccess(channel, uid, elapsed));
         }
 
         @Override
         public void onRtcStats(RtcStats stats) {
-            for (RtcEventListener listener : listeners) {
-                listener.onRtcStats(stats);
-            }
+            dispatcher.dispatch(listener -> listener.onRtcStats(stats));
         }
 
         @Override
         public void onUserJoined(int uid, int elapsed) {
             log.i("onUserJoined %d", uid);
-            for (RtcEventListener listener : listeners) {
-                listener.onUserJoined(uid, elapsed);
-            }
+            dispatcher.dispatch(listener -> listener.onUserJoined(uid, elapsed));
         }
 
         @Override
         public void onUserOffline(int uid, int reason) {
             log.i("onUserOffline %d", uid);
-            for (RtcEventListener listener : listeners) {
-                listener.onUserOffline(uid, reason);
-            }
+            dispatcher.dispatch(listener -> listener.onUserOffline(uid, reason));
+        }
+
+        @Override
+        public void onActiveSpeaker(int uid) {
+            dispatcher.dispatch(listener -> listener.onActiveSpeaker(uid));
         }
 
         @Override
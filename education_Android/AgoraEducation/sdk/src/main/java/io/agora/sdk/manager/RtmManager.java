@@ -6,7 +6,6 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,7 +31,7 @@ public final class RtmManager extends SdkManager<RtmClient> implements RtmClient
 
     private final LogManager log = new LogManager(this.getClass().getSimpleName());
 
-    private List<RtmEventListener> listeners;
+    private EventDispatcher<RtmEventListener> dispatcher;
     private RtmChannel rtmChannel;
     @ConnectionState
     private int connectionState;
@@ -41,7 +40,7 @@ public final class RtmManager extends SdkManager<RtmClient> implements RtmClient
     private static RtmManager instance;
 
     private RtmManager() {
-        listeners = new ArrayList<>();
+        dispatcher = new EventDispatcher<>("Rtm");
     }
 
     public static RtmManager instance() {
@@ -80,9 +79,7 @@ public final class RtmManager extends SdkManager<RtmClient> implements RtmClient
             @Override
             public void onSuccess(Void aVoid) {
                 log.d("join success %s", channelId);
-                for (RtmEventListener listener : listeners) {
-                    listener.onJoinChannelSuccess(channelId);
-                }
+                dispatcher.dispatch(listener -> listener.onJoinChannelSuccess(channelId));
             }
 
             @Override
@@ -139,11 +136,15 @@ public final class RtmManager extends SdkManager<RtmClient> implements RtmClient
     }
 
     public void registerListener(RtmEventListener listener) {
-        listeners.add(listener);
+        dispatcher.register(listener);
     }
 
     public void unregisterListener(RtmEventListener listener) {
-        listeners.remove(listener);
+        dispatcher.unregister(listener);
+    }
+
+    public List<EventDispatcher.Stats> getDispatchStats() {
+        return dispatcher.getStats();
     }
 
     public void queryPeersOnlineStatus(Set<String> set, @NonNull Callback<Map<String, Boolean>> callback) {
@@ -221,71 +222,53 @@ public final class RtmManager extends SdkManager<RtmClient> implements RtmClient
 
     @Override
     public void onMemberCountUpdated(int i) {
-        for (RtmEventListener listener : listeners) {
-            listener.onMemberCountUpdated(i);
-        }
+        dispatcher.dispatch(listener -> listener.onMemberCountUpdated(i));
     }
 
     @Override
     public void onAttributesUpdated(List<RtmChannelAttribute> list) {
-        for (RtmEventListener listener : listeners) {
-            listener.onAttributesUpdated(list);
-        }
+        dispatcher.dispatch(listener -> listener.onAttributesUpdated(list));
     }
 
     @Override
     public void onMessageReceived(RtmMessage rtmMessage, RtmChannelMember rtmChannelMember) {
         log.i("onChannelMessageReceived %s from %s", rtmMessage.getText(), rtmChannelMember.getUserId());
-        for (RtmEventListener listener : listeners) {
-            listener.onMessageReceived(rtmMessage, rtmChannelMember);
-        }
+        dispatcher.dispatch(listener -> listener.onMessageReceived(rtmMessage, rtmChannelMember));
     }
 
     @Override
     public void onMemberJoined(RtmChannelMember rtmChannelMember) {
         log.i("onMemberJoined %s", rtmChannelMember.getUserId());
-        for (RtmEventListener listener : listeners) {
-            listener.onMemberJoined(rtmChannelMember);
-        }
+        dispatcher.dispatch(listener -> listener.onMemberJoined(rtmChannelMember));
     }
 
     @Override
     public void onMemberLeft(RtmChannelMember rtmChannelMember) {
         log.i("onMemberLeft %s", rtmChannelMember.getUserId());
-        for (RtmEventListener listener : listeners) {
-            listener.onMemberLeft(rtmChannelMember);
-        }
+        dispatcher.dispatch(listener -> listener.onMemberLeft(rtmChannelMember));
     }
 
     @Override
     public void onConnectionStateChanged(int i, int i1) {
         log.i("onConnectionStateChanged %d %d", i, i1);
         connectionState = i;
-        for (RtmEventListener listener : listeners) {
-            listener.onConnectionStateChanged(i, i1);
-        }
+        dispatcher.dispatch(listener -> listener.onConnectionStateChanged(i, i1));
     }
 
     @Override
     public void onMessageReceived(RtmMessage rtmMessage, String s) {
         log.i("onPeerMessageReceived %s from %s", rtmMessage.getText(), s);
-        for (RtmEventListener listener : listeners) {
-            listener.onMessageReceived(rtmMessage, s);
-        }
+        dispatcher.dispatch(listener -> listener.onMessageReceived(rtmMessage, s));
     }
 
     @Override
     public void onTokenExpired() {
-        for (RtmEventListener listener : listeners) {
-            listener.onTokenExpired();
-        }
+        dispatcher.dispatch(listener -> listener.onTokenExpired());
     }
 
     @Override
     public void onPeersOnlineStatusChanged(Map<String, Integer> map) {
-        for (RtmEventListener listener : listeners) {
-            listener.onPeersOnlineStatusChanged(map);
-        }
+        dispatcher.dispatch(listener -> listener.onPeersOnlineStatusChanged(map));
     }
 
     private class RtmCallback implements ResultCallback<Void> {
@@ -0,0 +1,11 @@
+package io.agora.timeline;
+
+/**
+ * Timeline able to warm up its content around a position before it is seeked there.
+ */
+public interface Prefetchable {
+    /**
+     * called on the main thread, must not block
+     */
+    void prefetch(long positionMs);
+}
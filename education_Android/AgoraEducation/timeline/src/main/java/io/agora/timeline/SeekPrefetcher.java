@@ -0,0 +1,38 @@
+package io.agora.timeline;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forwards the hovered position of a seek in progress to {@link Prefetchable} targets,
+ * once the position stays unchanged for {@link #DEBOUNCE} ms. Must be used on the main thread.
+ */
+public class SeekPrefetcher {
+    static final long DEBOUNCE = 150;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Prefetchable> targets = new ArrayList<>();
+    private long position;
+    private final Runnable task = () -> {
+        for (Prefetchable target : targets) {
+            target.prefetch(position);
+        }
+    };
+
+    public void addTarget(Prefetchable target) {
+        targets.add(target);
+    }
+
+    public void onSeeking(long positionMs) {
+        position = positionMs;
+        handler.removeCallbacks(task);
+        handler.postDelayed(task, DEBOUNCE);
+    }
+
+    public void cancel() {
+        handler.removeCallbacks(task);
+    }
+}
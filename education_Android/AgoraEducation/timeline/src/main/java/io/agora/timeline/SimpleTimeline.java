@@ -1,56 +1,98 @@
 package io.agora.timeline;
 
-import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class SimpleTimeline implements Timeline {
     public static final int PERIOD = 1000 / 15;
+    public static final int BACKGROUND_PERIOD = 1000;
+
+    /**
+     * one tick thread shared by all timelines
+     */
+    static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SimpleTimeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    interface Clock {
+        long nanoTime();
+    }
 
     @TimelineState
-    private int state = TimelineState.STATE_IDLE;
+    private volatile int state = TimelineState.STATE_IDLE;
 
     private long startTime, endTime;
-    private AtomicLong playedTime = new AtomicLong();
-    private long previewTime;
-
-    private Timer timer;
+    private final Clock clock;
+    /**
+     * played position is derived from a monotonic anchor instead of summing tick deltas,
+     * so tick jitter never accumulates into drift
+     */
+    private long anchorPositionNanos;
+    private long anchorClockNanos;
+    private boolean background;
+
+    private ScheduledFuture<?> tick;
     private TimelineListener listener;
 
     public SimpleTimeline(long startTime, long endTime) {
+        this(startTime, endTime, System::nanoTime);
+    }
+
+    SimpleTimeline(long startTime, long endTime, Clock clock) {
         this.startTime = startTime;
         this.endTime = endTime;
+        this.clock = clock;
     }
 
     public long getDuration() {
         return endTime - startTime;
     }
 
+    /**
+     * @return played position in ms
+     */
+    public synchronized long getCurrentPosition() {
+        long positionNanos = anchorPositionNanos;
+        if (state == TimelineState.STATE_START) {
+            positionNanos += clock.nanoTime() - anchorClockNanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(positionNanos);
+    }
+
     @Override
     public void start() {
-        previewTime = new Date().getTime();
-
-        timer = new Timer();
-        timer.schedule(task(), PERIOD, PERIOD);
-
-        state = TimelineState.STATE_START;
+        synchronized (this) {
+            long now = clock.nanoTime();
+            if (state == TimelineState.STATE_START) {
+                // started again, keep the time played so far
+                anchorPositionNanos += now - anchorClockNanos;
+            }
+            anchorClockNanos = now;
+            state = TimelineState.STATE_START;
+            schedule();
+        }
         if (listener != null) {
             listener.onStart();
         }
     }
 
     @Override
-    public void seekTo(long positionMs) {
-        playedTime.set(positionMs);
+    public synchronized void seekTo(long positionMs) {
+        anchorPositionNanos = TimeUnit.MILLISECONDS.toNanos(positionMs);
+        anchorClockNanos = clock.nanoTime();
     }
 
     @Override
     public void pause() {
-        timer.cancel();
-        timer = null;
-
-        state = TimelineState.STATE_PAUSE;
+        synchronized (this) {
+            anchorPositionNanos = TimeUnit.MILLISECONDS.toNanos(getCurrentPosition());
+            state = TimelineState.STATE_PAUSE;
+            cancel();
+        }
         if (listener != null) {
             listener.onPause();
         }
@@ -58,10 +100,11 @@ public class SimpleTimeline implements Timeline {
 
     @Override
     public void stop() {
-        timer.cancel();
-        timer = null;
-
-        state = TimelineState.STATE_STOP;
+        synchronized (this) {
+            anchorPositionNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(getCurrentPosition(), getDuration()));
+            state = TimelineState.STATE_STOP;
+            cancel();
+        }
         if (listener != null) {
             listener.onStop();
         }
@@ -72,22 +115,55 @@ public class SimpleTimeline implements Timeline {
         return state;
     }
 
-    private TimerTask task() {
-        return new TimerTask() {
-            @Override
-            public void run() {
-                long nowTime = new Date().getTime();
-                playedTime.set(playedTime.get() + (nowTime - previewTime));
-                if (startTime + playedTime.get() > endTime) {
-                    stop();
-                    return;
-                }
-                if (listener != null) {
-                    listener.onTimelineChanged(playedTime.get(), endTime - startTime);
-                }
-                previewTime = nowTime;
-            }
-        };
+    /**
+     * freeze the clock of a started timeline while its content is loading, listeners are not notified
+     */
+    public synchronized void setBuffering(boolean buffering) {
+        if (buffering && state == TimelineState.STATE_START) {
+            anchorPositionNanos = TimeUnit.MILLISECONDS.toNanos(getCurrentPosition());
+            state = TimelineState.STATE_BUFFERING;
+            cancel();
+        } else if (!buffering && state == TimelineState.STATE_BUFFERING) {
+            anchorClockNanos = clock.nanoTime();
+            state = TimelineState.STATE_START;
+            schedule();
+        }
+    }
+
+    /**
+     * tick at a low rate while no one is watching the progress, paused timelines do not tick at all
+     */
+    public synchronized void setBackground(boolean background) {
+        if (this.background == background) return;
+        this.background = background;
+        if (state == TimelineState.STATE_START) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        cancel();
+        long period = background ? BACKGROUND_PERIOD : PERIOD;
+        tick = EXECUTOR.scheduleAtFixedRate(this::tick, background ? period : 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancel() {
+        if (tick != null) {
+            tick.cancel(false);
+            tick = null;
+        }
+    }
+
+    void tick() {
+        if (state != TimelineState.STATE_START) return;
+        long position = getCurrentPosition();
+        if (position > getDuration()) {
+            stop();
+            return;
+        }
+        if (listener != null) {
+            listener.onTimelineChanged(position, getDuration());
+        }
     }
 
     public void setTimelineListener(TimelineListener listener) {
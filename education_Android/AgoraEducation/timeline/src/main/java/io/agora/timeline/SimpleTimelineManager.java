@@ -1,40 +1,107 @@
 package io.agora.timeline;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Drives child timelines from one master {@link SimpleTimeline}.
+ * <p>
+ * While started, children are checked on the main thread: the master clock stalls as soon as any child
+ * buffers and all children resume together once every child is ready. Children implementing
+ * {@link SyncTimeline} are seeked back to the master position when they drift too far away.
+ * All methods must be called on the main thread.
+ */
 public class SimpleTimelineManager extends TimelineDecorator {
-    private List<Timeline> timelineList;
+    static final long SYNC_PERIOD = 200;
+    static final long MAX_DRIFT = 300;
+
+    public static final class DriftStats {
+        public final String timeline;
+        public final long drift;
+        public final long maxDrift;
+        public final int corrections;
+
+        DriftStats(String timeline, long drift, long maxDrift, int corrections) {
+            this.timeline = timeline;
+            this.drift = drift;
+            this.maxDrift = maxDrift;
+            this.corrections = corrections;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("%s drift=%dms max=%dms corrections=%d", timeline, drift, maxDrift, corrections);
+        }
+    }
+
+    private static class Child extends TimelineDecorator {
+        private final Timeline timeline;
+        private long drift, maxDrift;
+        private int corrections;
+
+        Child(Timeline timeline) {
+            super(timeline);
+            this.timeline = timeline;
+        }
+    }
+
+    private final SimpleTimeline master;
+    private List<Child> timelineList;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable syncTask = this::sync;
+    private final SeekPrefetcher prefetcher = new SeekPrefetcher();
+    private boolean syncing;
+    private int stallCount;
 
     public SimpleTimelineManager(SimpleTimeline timeline) {
         super(timeline);
+        master = timeline;
         timelineList = new ArrayList<>();
     }
 
     public void addTimeline(Timeline timeline) {
-        timelineList.add(new TimelineDecorator(timeline) {
-        });
+        timelineList.add(new Child(timeline));
+        if (timeline instanceof Prefetchable) {
+            prefetcher.addTarget((Prefetchable) timeline);
+        }
+    }
+
+    /**
+     * warm up children around a position the user is about to seek to
+     */
+    public void prefetch(long positionMs) {
+        prefetcher.onSeeking(positionMs);
     }
 
     @Override
     public void start() {
-        for (Timeline timeline : timelineList) {
-            if (timeline.getState() == TimelineState.STATE_BUFFERING) {
-                return;
-            }
+        if (getState() == TimelineState.STATE_BUFFERING) {
+            return;
         }
         super.start();
-        for (Timeline timeline : timelineList) {
-            timeline.start();
+        if (isChildBuffering()) {
+            stall();
+        } else {
+            for (Timeline timeline : timelineList) {
+                timeline.start();
+            }
         }
+        startSync();
     }
 
     @Override
     public void pause() {
-        for (Timeline timeline : timelineList) {
-            if (timeline.getState() == TimelineState.STATE_BUFFERING) {
-                return;
-            }
+        if (getState() == TimelineState.STATE_BUFFERING) {
+            // children are already paused while stalled
+            master.setBuffering(false);
+        } else if (isChildBuffering()) {
+            return;
         }
         super.pause();
         for (Timeline timeline : timelineList) {
@@ -44,10 +111,16 @@ public class SimpleTimelineManager extends TimelineDecorator {
 
     @Override
     public void seekTo(long positionMs) {
-        for (Timeline timeline : timelineList) {
-            if (timeline.getState() == TimelineState.STATE_BUFFERING) {
-                return;
+        if (getState() == TimelineState.STATE_PAUSE) {
+            // children may still be loading a prefetched position, nothing plays so seek them anyway
+            super.seekTo(positionMs);
+            for (Child child : timelineList) {
+                child.timeline.seekTo(positionMs);
             }
+            return;
+        }
+        if (isChildBuffering()) {
+            return;
         }
         super.seekTo(positionMs);
         for (Timeline timeline : timelineList) {
@@ -57,10 +130,8 @@ public class SimpleTimelineManager extends TimelineDecorator {
 
     @Override
     public void stop() {
-        for (Timeline timeline : timelineList) {
-            if (timeline.getState() == TimelineState.STATE_BUFFERING) {
-                return;
-            }
+        if (isChildBuffering()) {
+            return;
         }
         super.stop();
         for (Timeline timeline : timelineList) {
@@ -73,4 +144,108 @@ public class SimpleTimelineManager extends TimelineDecorator {
     public int getState() {
         return super.getState();
     }
+
+    public void release() {
+        handler.removeCallbacks(syncTask);
+        syncing = false;
+        prefetcher.cancel();
+    }
+
+    /**
+     * @return drift of every {@link SyncTimeline} child against the master clock
+     */
+    public List<DriftStats> getDriftStats() {
+        List<DriftStats> stats = new ArrayList<>();
+        for (Child child : timelineList) {
+            if (child.timeline instanceof SyncTimeline) {
+                stats.add(new DriftStats(child.timeline.getClass().getSimpleName(),
+                        child.drift, child.maxDrift, child.corrections));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return how many times the master clock stalled for a buffering child
+     */
+    public int getStallCount() {
+        return stallCount;
+    }
+
+    private boolean isChildBuffering() {
+        for (Timeline timeline : timelineList) {
+            if (timeline.getState() == TimelineState.STATE_BUFFERING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startSync() {
+        if (!syncing) {
+            syncing = true;
+            handler.postDelayed(syncTask, SYNC_PERIOD);
+        }
+    }
+
+    private void sync() {
+        switch (getState()) {
+            case TimelineState.STATE_START:
+                if (isChildBuffering()) {
+                    stall();
+                } else {
+                    correctDrift();
+                }
+                break;
+            case TimelineState.STATE_BUFFERING:
+                if (!isChildBuffering()) {
+                    resume();
+                }
+                break;
+            default:
+                syncing = false;
+                return;
+        }
+        handler.postDelayed(syncTask, SYNC_PERIOD);
+    }
+
+    private void stall() {
+        stallCount++;
+        master.setBuffering(true);
+        // keep loading but hold every child, so the ready ones do not run ahead
+        for (Child child : timelineList) {
+            child.timeline.pause();
+        }
+    }
+
+    private void resume() {
+        long position = master.getCurrentPosition();
+        for (Child child : timelineList) {
+            if (child.timeline.getState() == TimelineState.STATE_STOP) continue;
+            correct(child, position);
+            child.timeline.start();
+        }
+        master.setBuffering(false);
+    }
+
+    private void correctDrift() {
+        long position = master.getCurrentPosition();
+        for (Child child : timelineList) {
+            if (child.timeline.getState() == TimelineState.STATE_START) {
+                correct(child, position);
+            }
+        }
+    }
+
+    private void correct(Child child, long position) {
+        if (!(child.timeline instanceof SyncTimeline)) return;
+        long childPosition = ((SyncTimeline) child.timeline).getCurrentPosition();
+        if (childPosition < 0) return;
+        child.drift = childPosition - position;
+        child.maxDrift = Math.max(child.maxDrift, Math.abs(child.drift));
+        if (Math.abs(child.drift) > MAX_DRIFT) {
+            child.corrections++;
+            child.timeline.seekTo(position);
+        }
+    }
 }
@@ -0,0 +1,11 @@
+package io.agora.timeline;
+
+/**
+ * Timeline which reports its own playback position, so it can be kept in sync with the master timeline.
+ */
+public interface SyncTimeline extends Timeline {
+    /**
+     * @return playback position in ms, negative if unknown
+     */
+    long getCurrentPosition();
+}
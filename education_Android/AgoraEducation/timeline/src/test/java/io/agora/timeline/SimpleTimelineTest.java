@@ -0,0 +1,129 @@
+package io.agora.timeline;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimpleTimelineTest {
+
+    private static final long TWO_HOURS = TimeUnit.HOURS.toMillis(2);
+    private static final long MAX_DRIFT = 5;
+
+    private static class FakeClock implements SimpleTimeline.Clock {
+        final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+
+        @Override
+        public long nanoTime() {
+            return nanos.get();
+        }
+
+        void advance(long nanos) {
+            this.nanos.addAndGet(nanos);
+        }
+    }
+
+    private static class RecordListener implements TimelineListener {
+        volatile long current = -1;
+        volatile boolean stopped;
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onPause() {
+        }
+
+        @Override
+        public void onTimelineChanged(long currentTime, long totalTime) {
+            current = currentTime;
+        }
+
+        @Override
+        public void onStop() {
+            stopped = true;
+        }
+    }
+
+    @Test
+    public void jitteryTicksDoNotDrift() {
+        FakeClock clock = new FakeClock();
+        SimpleTimeline timeline = new SimpleTimeline(0, TWO_HOURS + 1000, clock);
+        RecordListener listener = new RecordListener();
+        timeline.setTimelineListener(listener);
+        timeline.setBackground(true);
+
+        Random random = new Random(42);
+        long elapsedNanos = 0;
+        long playNanos = TimeUnit.MILLISECONDS.toNanos(TWO_HOURS);
+        timeline.start();
+        while (elapsedNanos < playNanos) {
+            // ticks arrive late by up to one period and with sub-millisecond remainders
+            long step = TimeUnit.MILLISECONDS.toNanos(SimpleTimeline.PERIOD) + random.nextInt(70_000_000);
+            clock.advance(step);
+            elapsedNanos += step;
+            timeline.tick();
+        }
+        long expected = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        assertTrue(Math.abs(expected - listener.current) < MAX_DRIFT);
+        timeline.pause();
+    }
+
+    @Test
+    public void pauseAndSeekKeepPosition() {
+        FakeClock clock = new FakeClock();
+        SimpleTimeline timeline = new SimpleTimeline(0, TWO_HOURS, clock);
+        timeline.setBackground(true);
+
+        timeline.start();
+        clock.advance(TimeUnit.MINUTES.toNanos(10));
+        timeline.pause();
+        assertEquals(TimeUnit.MINUTES.toMillis(10), timeline.getCurrentPosition());
+
+        clock.advance(TimeUnit.MINUTES.toNanos(5));
+        assertEquals(TimeUnit.MINUTES.toMillis(10), timeline.getCurrentPosition());
+
+        timeline.seekTo(TimeUnit.MINUTES.toMillis(30));
+        timeline.start();
+        clock.advance(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(TimeUnit.MINUTES.toMillis(30) + 1000, timeline.getCurrentPosition());
+        timeline.pause();
+    }
+
+    @Test
+    public void startTwiceKeepsPosition() {
+        FakeClock clock = new FakeClock();
+        SimpleTimeline timeline = new SimpleTimeline(0, TWO_HOURS, clock);
+        timeline.setBackground(true);
+
+        timeline.start();
+        clock.advance(TimeUnit.MINUTES.toNanos(10));
+        timeline.start();
+        assertEquals(TimeUnit.MINUTES.toMillis(10), timeline.getCurrentPosition());
+        clock.advance(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(TimeUnit.MINUTES.toMillis(10) + 1000, timeline.getCurrentPosition());
+        timeline.pause();
+    }
+
+    @Test
+    public void stopsAtEnd() {
+        FakeClock clock = new FakeClock();
+        SimpleTimeline timeline = new SimpleTimeline(0, 1000, clock);
+        RecordListener listener = new RecordListener();
+        timeline.setTimelineListener(listener);
+        timeline.setBackground(true);
+
+        timeline.start();
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(1500));
+        timeline.tick();
+        assertTrue(listener.stopped);
+        assertEquals(TimelineState.STATE_STOP, timeline.getState());
+        assertEquals(1000, timeline.getCurrentPosition());
+    }
+
+}
@@ -2,6 +2,7 @@ package io.agora.whiteboard.netless.manager;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.view.Choreographer;
 
 import com.herewhite.sdk.Room;
 import com.herewhite.sdk.RoomCallbacks;
@@ -24,54 +25,93 @@ public class BoardManager extends NetlessManager<Room> implements RoomCallbacks
 
     private String appliance;
     private int[] strokeColor;
+    private Double strokeWidth;
+    private String pendingAppliance;
+    private int[] pendingStrokeColor;
+    private Double pendingStrokeWidth;
+    private boolean flushScheduled;
+    private Choreographer.FrameCallback flushCallback = frameTimeNanos -> flushMemberState();
     private Boolean disableDeviceInputs;
     private Boolean disableCameraTransform;
     private Boolean writable;
 
     private Handler handler = new Handler(Looper.getMainLooper());
     private BoardEventListener listener;
+    private ScenePreviewCache previewCache = new ScenePreviewCache();
 
     public void setListener(BoardEventListener listener) {
         this.listener = listener;
     }
 
+    public ScenePreviewCache getPreviewCache() {
+        return previewCache;
+    }
+
     public void init(WhiteSdk sdk, RoomParams params) {
         log.d("init");
         sdk.joinRoom(params, this, promise);
     }
 
+    /**
+     * member state changes are merged and sent once per frame, reads are served from the local mirror
+     */
     public void setAppliance(@Appliance String appliance) {
-        if (t != null) {
-            MemberState state = new MemberState();
-            state.setCurrentApplianceName(appliance);
-            t.setMemberState(state);
-        } else {
-            this.appliance = appliance;
-        }
+        this.appliance = pendingAppliance = appliance;
+        scheduleFlush();
     }
 
     public String getAppliance() {
-        if (t != null) {
-            return t.getMemberState().getCurrentApplianceName();
-        }
-        return null;
+        return appliance;
     }
 
     public void setStrokeColor(int[] color) {
-        if (t != null) {
-            MemberState state = new MemberState();
-            state.setStrokeColor(color);
-            t.setMemberState(state);
-        } else {
-            this.strokeColor = color;
-        }
+        this.strokeColor = pendingStrokeColor = color;
+        scheduleFlush();
     }
 
     public int[] getStrokeColor() {
-        if (t != null) {
-            t.getMemberState().getStrokeColor();
+        return strokeColor;
+    }
+
+    public void setStrokeWidth(double width) {
+        this.strokeWidth = pendingStrokeWidth = width;
+        scheduleFlush();
+    }
+
+    /**
+     * @return null until set locally
+     */
+    public Double getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.post(() -> Choreographer.getInstance().postFrameCallback(flushCallback));
         }
-        return null;
+    }
+
+    private void flushMemberState() {
+        flushScheduled = false;
+        // kept pending until the room is joined
+        if (t == null || (pendingAppliance == null && pendingStrokeColor == null && pendingStrokeWidth == null)) {
+            return;
+        }
+        MemberState state = new MemberState();
+        if (pendingAppliance != null) {
+            state.setCurrentApplianceName(pendingAppliance);
+        }
+        if (pendingStrokeColor != null) {
+            state.setStrokeColor(pendingStrokeColor);
+        }
+        if (pendingStrokeWidth != null) {
+            state.setStrokeWidth(pendingStrokeWidth);
+        }
+        t.setMemberState(state);
+        pendingAppliance = null;
+        pendingStrokeColor = null;
+        pendingStrokeWidth = null;
     }
 
     public void setSceneIndex(int index) {
@@ -170,6 +210,7 @@ public class BoardManager extends NetlessManager<Room> implements RoomCallbacks
         if (t != null) {
             t.disconnect();
         }
+        handler.post(previewCache::release);
     }
 
     @Override
@@ -196,15 +237,23 @@ public class BoardManager extends NetlessManager<Room> implements RoomCallbacks
 
     @Override
     public void onRoomStateChanged(RoomState modifyState) {
-        if (listener != null) {
-            MemberState memberState = modifyState.getMemberState();
-            if (memberState != null) {
-                handler.post(() -> listener.onMemberStateChanged(memberState));
-            }
-            SceneState sceneState = modifyState.getSceneState();
-            if (sceneState != null) {
-                handler.post(() -> listener.onSceneStateChanged(sceneState));
-            }
+        MemberState memberState = modifyState.getMemberState();
+        if (memberState != null) {
+            handler.post(() -> {
+                mirror(memberState);
+                if (listener != null) {
+                    listener.onMemberStateChanged(memberState);
+                }
+            });
+        }
+        SceneState sceneState = modifyState.getSceneState();
+        if (sceneState != null) {
+            handler.post(() -> {
+                previewCache.onSceneStateChanged(sceneState);
+                if (listener != null) {
+                    listener.onSceneStateChanged(sceneState);
+                }
+            });
         }
     }
 
@@ -216,12 +265,13 @@ public class BoardManager extends NetlessManager<Room> implements RoomCallbacks
     @Override
     void onSuccess(Room room) {
         log.i("onSuccess");
-        if (appliance != null) {
-            setAppliance(appliance);
-        }
-        if (strokeColor != null) {
-            setStrokeColor(strokeColor);
-        }
+        handler.post(() -> {
+            // state set before joining goes out in one write, the rest comes from the room
+            flushMemberState();
+            mirror(room.getMemberState());
+            previewCache.attach(room);
+            previewCache.onSceneStateChanged(room.getSceneState());
+        });
         if (disableDeviceInputs != null) {
             disableDeviceInputs(disableDeviceInputs);
         }
@@ -236,6 +286,19 @@ public class BoardManager extends NetlessManager<Room> implements RoomCallbacks
         }
     }
 
+    /**
+     * take the state reported by the room, except fields still waiting to be sent
+     */
+    private void mirror(MemberState state) {
+        if (state == null) return;
+        if (pendingAppliance == null) {
+            appliance = state.getCurrentApplianceName();
+        }
+        if (pendingStrokeColor == null) {
+            strokeColor = state.getStrokeColor();
+        }
+    }
+
     @Override
     void onFail(SDKError error) {
         log.e("onFail %s", error.toString());
@@ -0,0 +1,194 @@
+package io.agora.whiteboard.netless.manager;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.herewhite.sdk.Room;
+import com.herewhite.sdk.domain.Promise;
+import com.herewhite.sdk.domain.SDKError;
+import com.herewhite.sdk.domain.Scene;
+import com.herewhite.sdk.domain.SceneState;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.agora.log.LogManager;
+
+/**
+ * Keeps the scenes around the current one rendered and their low resolution thumbnails in memory.
+ * Rendering a preview makes the board load the scene and its PPT page, so flipping to an adjacent scene
+ * does not wait for the network. Previews are requested one at a time nearest first, scaled down off the
+ * main thread and evicted by LRU under {@link #MAX_BYTES}. Main thread only.
+ */
+public class ScenePreviewCache {
+
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
+    /**
+     * scenes kept warm on each side of the current one
+     */
+    public static final int ADJACENT = 2;
+    public static final int THUMBNAIL_WIDTH = 160;
+    private static final int MAX_BYTES = (int) Math.min(Runtime.getRuntime().maxMemory() / 32, 8 * 1024 * 1024);
+
+    private final LruCache<String, Bitmap> thumbnails = new LruCache<String, Bitmap>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor scaler = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> new Thread(r, "ScenePreview"));
+
+    private Room room;
+    private String[] paths = new String[0];
+    private int index = -1;
+    private String loading;
+    /**
+     * bumped on release, previews requested before it are ignored
+     */
+    private int generation;
+    private Listener listener;
+
+    public ScenePreviewCache() {
+        scaler.allowCoreThreadTimeOut(true);
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    void attach(Room room) {
+        this.room = room;
+    }
+
+    void onSceneStateChanged(SceneState state) {
+        String previous = index >= 0 && index < paths.length ? paths[index] : null;
+        Scene[] scenes = state.getScenes();
+        String dir = state.getScenePath().substring(0, state.getScenePath().lastIndexOf('/') + 1);
+        paths = new String[scenes.length];
+        for (int i = 0; i < scenes.length; i++) {
+            paths[i] = dir + scenes[i].getName();
+        }
+        index = state.getIndex();
+        if (previous != null && !previous.equals(state.getScenePath())) {
+            // may have been drawn on while it was shown
+            thumbnails.remove(previous);
+        }
+        queue.clear();
+        for (int distance = 0; distance <= ADJACENT; distance++) {
+            enqueue(index + distance);
+            if (distance > 0) {
+                enqueue(index - distance);
+            }
+        }
+        next();
+    }
+
+    /**
+     * thumbnail of the scene at the given index in the current directory, requested if missing
+     */
+    @Nullable
+    public Bitmap getThumbnail(int index) {
+        if (index < 0 || index >= paths.length) return null;
+        Bitmap bitmap = thumbnails.get(paths[index]);
+        if (bitmap == null) {
+            enqueue(index);
+            next();
+        }
+        return bitmap;
+    }
+
+    public void release() {
+        room = null;
+        queue.clear();
+        // a request left unanswered by the torn down room must not block the next one
+        loading = null;
+        generation++;
+        thumbnails.evictAll();
+        listener = null;
+    }
+
+    private void enqueue(int index) {
+        if (index < 0 || index >= paths.length) return;
+        String path = paths[index];
+        if (thumbnails.get(path) == null && !path.equals(loading) && !queue.contains(path)) {
+            queue.add(path);
+        }
+    }
+
+    private void next() {
+        if (room == null || loading != null || queue.isEmpty()) return;
+        String path = queue.poll();
+        int requestGeneration = generation;
+        loading = path;
+        room.getScenePreviewImage(path, new Promise<Bitmap>() {
+            @Override
+            public void then(Bitmap bitmap) {
+                if (bitmap == null) {
+                    handler.post(() -> onLoaded(requestGeneration, path, null));
+                    return;
+                }
+                scaler.execute(() -> {
+                    Bitmap thumbnail = scale(bitmap);
+                    handler.post(() -> onLoaded(requestGeneration, path, thumbnail));
+                });
+            }
+
+            @Override
+            public void catchEx(SDKError error) {
+                log.w("preview of %s failed %s", path, error.getMessage());
+                handler.post(() -> onLoaded(requestGeneration, path, null));
+            }
+        });
+    }
+
+    private void onLoaded(int requestGeneration, String path, @Nullable Bitmap thumbnail) {
+        if (requestGeneration != generation) {
+            if (thumbnail != null) thumbnail.recycle();
+            return;
+        }
+        loading = null;
+        if (room != null && thumbnail != null) {
+            thumbnails.put(path, thumbnail);
+            if (listener != null) {
+                for (int i = 0; i < paths.length; i++) {
+                    if (paths[i].equals(path)) {
+                        listener.onThumbnailReady(i, thumbnail);
+                        break;
+                    }
+                }
+            }
+        }
+        next();
+    }
+
+    private static Bitmap scale(Bitmap bitmap) {
+        int height = Math.max(1, bitmap.getHeight() * THUMBNAIL_WIDTH / Math.max(1, bitmap.getWidth()));
+        Bitmap scaled = Bitmap.createScaledBitmap(bitmap, THUMBNAIL_WIDTH, height, true);
+        if (scaled.getConfig() != Bitmap.Config.RGB_565) {
+            Bitmap compact = scaled.copy(Bitmap.Config.RGB_565, false);
+            if (compact != null) {
+                if (scaled != bitmap) scaled.recycle();
+                scaled = compact;
+            }
+        }
+        if (scaled != bitmap) {
+            bitmap.recycle();
+        }
+        return scaled;
+    }
+
+    public interface Listener {
+        void onThumbnailReady(int index, Bitmap thumbnail);
+    }
+
+}
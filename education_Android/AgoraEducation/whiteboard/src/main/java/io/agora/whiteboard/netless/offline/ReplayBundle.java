@@ -0,0 +1,275 @@
+package io.agora.whiteboard.netless.offline;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local copy of the resources a whiteboard replay loads, so it can be played again without network.
+ * It is filled while the replay plays: the slice list of a recording is not exposed, so it can not be
+ * downloaded ahead.
+ * <p>
+ * Files are content addressed: stored once under {@code replay/objects/<sha1>} whatever the recording
+ * referencing them. Each recording has a manifest {@code replay/<recordId>.manifest} of
+ * {@code url \t sha1 \t mime type} lines, appended as resources are stored.
+ * <p>
+ * Objects are kept under {@link #MAX_BYTES}: when a put goes over it, recordings are evicted least
+ * recently opened first, along with the objects no remaining recording references.
+ */
+public final class ReplayBundle {
+
+    private static final String MANIFEST_EXTENSION = ".manifest";
+    static final long MAX_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * guards the files shared by all bundles, taken before a bundle's own lock
+     */
+    private static final Object LOCK = new Object();
+    /**
+     * size of the objects directory, -1 until measured
+     */
+    private static long storedBytes = -1;
+
+    private final File root;
+    private final File objects;
+    private final File manifest;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean loaded;
+
+    private ReplayBundle(File root, String recordId) {
+        this.root = root;
+        objects = new File(root, "objects");
+        manifest = new File(root, recordId + MANIFEST_EXTENSION);
+    }
+
+    /**
+     * the manifest is read on first access
+     */
+    public static ReplayBundle open(@NonNull Context context, @NonNull String recordId) {
+        ReplayBundle bundle = new ReplayBundle(getRoot(context), recordId);
+        // the modification time orders recordings for eviction
+        bundle.manifest.setLastModified(System.currentTimeMillis());
+        return bundle;
+    }
+
+    /**
+     * remove a recording and the objects only it referenced
+     */
+    public static void delete(@NonNull Context context, @NonNull String recordId) {
+        File root = getRoot(context);
+        synchronized (LOCK) {
+            new File(root, recordId + MANIFEST_EXTENSION).delete();
+            collectGarbage(root);
+        }
+    }
+
+    private static File getRoot(Context context) {
+        return new File(context.getFilesDir(), "replay");
+    }
+
+    @Nullable
+    public synchronized File get(@NonNull String url) {
+        load();
+        Entry entry = entries.get(url);
+        if (entry == null) return null;
+        File file = new File(objects, entry.sha1);
+        return file.exists() ? file : null;
+    }
+
+    @Nullable
+    public synchronized String getMimeType(@NonNull String url) {
+        load();
+        Entry entry = entries.get(url);
+        return entry == null ? null : entry.mimeType;
+    }
+
+    public synchronized int size() {
+        load();
+        return entries.size();
+    }
+
+    /**
+     * copy the resource into the bundle, the stream is read to its end but not closed
+     *
+     * @return the stored file
+     */
+    public File put(@NonNull String url, @Nullable String mimeType, @NonNull InputStream in) throws IOException {
+        if (!objects.isDirectory() && !objects.mkdirs()) {
+            throw new IOException("can not create " + objects);
+        }
+        File temp = File.createTempFile("download", null, objects);
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (OutputStream out = new FileOutputStream(temp)) {
+            byte[] buffer = new byte[16 * 1024];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, length);
+                out.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        String sha1 = toHex(digest.digest());
+        File file = new File(objects, sha1);
+        synchronized (LOCK) {
+            synchronized (this) {
+                load();
+                if (file.exists()) {
+                    // same content already stored by this or another recording
+                    temp.delete();
+                } else if (!temp.renameTo(file)) {
+                    temp.delete();
+                    throw new IOException("can not store " + url);
+                } else if (storedBytes >= 0) {
+                    storedBytes += file.length();
+                }
+                Entry entry = new Entry(sha1, mimeType == null ? "" : mimeType);
+                if (!entry.equals(entries.put(url, entry))) {
+                    try (Writer writer = new OutputStreamWriter(new FileOutputStream(manifest, true), "UTF-8")) {
+                        writer.write(url + '\t' + entry.sha1 + '\t' + entry.mimeType + '\n');
+                    }
+                }
+            }
+            trim(root, manifest);
+        }
+        return file;
+    }
+
+    /**
+     * evict other recordings least recently opened first until the objects fit in {@link #MAX_BYTES}
+     */
+    private static void trim(File root, File keep) {
+        if (storedBytes < 0) {
+            storedBytes = measure(new File(root, "objects"));
+        }
+        if (storedBytes <= MAX_BYTES) return;
+        File[] manifests = root.listFiles((dir, name) -> name.endsWith(MANIFEST_EXTENSION));
+        if (manifests == null) return;
+        Arrays.sort(manifests, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File manifest : manifests) {
+            if (manifest.equals(keep)) continue;
+            manifest.delete();
+            collectGarbage(root);
+            if (storedBytes <= MAX_BYTES) return;
+        }
+    }
+
+    /**
+     * delete objects no manifest references, downloads in progress are left alone
+     */
+    private static void collectGarbage(File root) {
+        Set<String> referenced = new HashSet<>();
+        File[] manifests = root.listFiles((dir, name) -> name.endsWith(MANIFEST_EXTENSION));
+        if (manifests != null) {
+            for (File manifest : manifests) {
+                for (Entry entry : readManifest(manifest).values()) {
+                    referenced.add(entry.sha1);
+                }
+            }
+        }
+        File[] files = new File(root, "objects").listFiles();
+        long size = 0;
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().length() == 40 && !referenced.contains(file.getName())) {
+                    file.delete();
+                } else {
+                    size += file.length();
+                }
+            }
+        }
+        storedBytes = size;
+    }
+
+    private static long measure(File dir) {
+        long size = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        entries.putAll(readManifest(manifest));
+    }
+
+    private static Map<String, Entry> readManifest(File manifest) {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!manifest.exists()) return entries;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                // a line cut by a crash is ignored, later lines win
+                if (fields.length == 3 && fields[1].length() == 40) {
+                    entries.put(fields[0], new Entry(fields[1], fields[2]));
+                }
+            }
+        } catch (IOException e) {
+            // keep what was read, missing resources are downloaded again
+        }
+        return entries;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static final class Entry {
+        final String sha1;
+        final String mimeType;
+
+        Entry(String sha1, String mimeType) {
+            this.sha1 = sha1;
+            this.mimeType = mimeType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry entry = (Entry) o;
+            return sha1.equals(entry.sha1) && mimeType.equals(entry.mimeType);
+        }
+
+        @Override
+        public int hashCode() {
+            return sha1.hashCode() * 31 + mimeType.hashCode();
+        }
+    }
+
+}
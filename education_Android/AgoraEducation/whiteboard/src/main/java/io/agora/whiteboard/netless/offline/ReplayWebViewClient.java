@@ -0,0 +1,213 @@
+package io.agora.whiteboard.netless.offline;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.net.http.SslError;
+import android.os.Build;
+import android.webkit.RenderProcessGoneDetail;
+import android.webkit.SslErrorHandler;
+import android.webkit.WebResourceError;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+import io.agora.log.LogManager;
+import io.agora.whiteboard.BuildConfig;
+
+/**
+ * Serves the slices and media of a whiteboard replay from its {@link ReplayBundle}. Resources missing from
+ * the bundle are downloaded into it before being served, so a replay watched once can be watched again
+ * offline and seeking back never refetches.
+ * <p>
+ * Only plain GETs to the whiteboard storage hosts are intercepted, the API and anything else goes to the
+ * network as before. Needs API 21 for the request method and headers.
+ */
+public class ReplayWebViewClient extends WebViewClient {
+
+    private final LogManager log = new LogManager(this.getClass().getSimpleName());
+
+    private static final int TIMEOUT = 15 * 1000;
+    /**
+     * hosts serving the immutable slices and media of recordings
+     */
+    private static final String[] HOST_SUFFIXES = {".herewhite.com", ".netless.link"};
+    private static final String API_HOST = Uri.parse(BuildConfig.API_BASE_URL).getHost();
+
+    private final ReplayBundle bundle;
+    @Nullable
+    private final WebViewClient delegate;
+
+    /**
+     * @param delegate the client installed before this one, it keeps receiving every callback and the
+     *                 requests not served from the bundle
+     */
+    public ReplayWebViewClient(@NonNull ReplayBundle bundle, @Nullable WebViewClient delegate) {
+        this.bundle = bundle;
+        this.delegate = delegate;
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+        // partial content is left to the network
+        if ("GET".equals(request.getMethod()) && !request.getRequestHeaders().containsKey("Range")
+                && isStorage(request.getUrl())) {
+            WebResourceResponse response = serve(request.getUrl().toString(), request.getRequestHeaders());
+            if (response != null) return response;
+        }
+        return delegate != null ? delegate.shouldInterceptRequest(view, request) : null;
+    }
+
+    /**
+     * without the method and headers nothing is served from the bundle
+     */
+    @Override
+    public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+        return delegate != null ? delegate.shouldInterceptRequest(view, url) : null;
+    }
+
+    private static boolean isStorage(Uri uri) {
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (host == null || !("http".equals(scheme) || "https".equals(scheme)) || host.equals(API_HOST)) {
+            return false;
+        }
+        for (String suffix : HOST_SUFFIXES) {
+            if (host.endsWith(suffix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * called on a WebView background thread
+     */
+    private WebResourceResponse serve(String url, Map<String, String> headers) {
+        try {
+            File file = bundle.get(url);
+            if (file == null) {
+                file = download(url, headers);
+                if (file == null) return null;
+            }
+            return createResponse(bundle.getMimeType(url), new FileInputStream(file));
+        } catch (IOException e) {
+            // let the WebView try on its own
+            log.w("intercept %s failed %s", url, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean shouldOverrideUrlLoading(WebView view, String url) {
+        return delegate != null ? delegate.shouldOverrideUrlLoading(view, url) : super.shouldOverrideUrlLoading(view, url);
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.N)
+    public boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
+        return delegate != null ? delegate.shouldOverrideUrlLoading(view, request) : super.shouldOverrideUrlLoading(view, request);
+    }
+
+    @Override
+    public void onPageStarted(WebView view, String url, Bitmap favicon) {
+        if (delegate != null) delegate.onPageStarted(view, url, favicon);
+    }
+
+    @Override
+    public void onPageFinished(WebView view, String url) {
+        if (delegate != null) delegate.onPageFinished(view, url);
+    }
+
+    @Override
+    public void onReceivedError(WebView view, int errorCode, String description, String failingUrl) {
+        if (delegate != null) delegate.onReceivedError(view, errorCode, description, failingUrl);
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.M)
+    public void onReceivedError(WebView view, WebResourceRequest request, WebResourceError error) {
+        if (delegate != null) {
+            delegate.onReceivedError(view, request, error);
+        } else {
+            super.onReceivedError(view, request, error);
+        }
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.M)
+    public void onReceivedHttpError(WebView view, WebResourceRequest request, WebResourceResponse errorResponse) {
+        if (delegate != null) delegate.onReceivedHttpError(view, request, errorResponse);
+    }
+
+    @Override
+    public void onReceivedSslError(WebView view, SslErrorHandler handler, SslError error) {
+        if (delegate != null) {
+            delegate.onReceivedSslError(view, handler, error);
+        } else {
+            super.onReceivedSslError(view, handler, error);
+        }
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.O)
+    public boolean onRenderProcessGone(WebView view, RenderProcessGoneDetail detail) {
+        return delegate != null ? delegate.onRenderProcessGone(view, detail) : super.onRenderProcessGone(view, detail);
+    }
+
+    /**
+     * @return null when the response is not stored, the WebView then loads it itself
+     */
+    private File download(String url, Map<String, String> headers) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            String cacheControl = connection.getHeaderField("Cache-Control");
+            if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("no-cache")
+                    || cacheControl.contains("private"))) {
+                return null;
+            }
+            String mimeType = connection.getContentType();
+            if (mimeType != null && mimeType.indexOf(';') > 0) {
+                mimeType = mimeType.substring(0, mimeType.indexOf(';')).trim();
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return bundle.put(url, mimeType, in);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static WebResourceResponse createResponse(String mimeType, InputStream in) {
+        if (mimeType == null || mimeType.isEmpty()) {
+            mimeType = "application/octet-stream";
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            // slices are read with XHR from the board page
+            return new WebResourceResponse(mimeType, null, 200, "OK",
+                    Collections.singletonMap("Access-Control-Allow-Origin", "*"), in);
+        }
+        return new WebResourceResponse(mimeType, null, in);
+    }
+
+}